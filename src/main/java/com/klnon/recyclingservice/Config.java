@@ -1,6 +1,12 @@
 package com.klnon.recyclingservice;
 
 import com.klnon.recyclingservice.foundation.config.*;
+import com.klnon.recyclingservice.foundation.utility.RegistryFilter;
+import it.unimi.dsi.fastutil.objects.Reference2BooleanOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.world.entity.EntityType;
+import net.minecraft.world.item.Item;
 import net.minecraft.world.item.ItemStack;
 import net.neoforged.neoforge.common.ModConfigSpec;
 import net.minecraft.resources.ResourceLocation;
@@ -24,10 +30,13 @@ public class Config {
     public static final MessageConfig MESSAGE = new MessageConfig(BUILDER);
     
     // 性能优化缓存
-    public static volatile Set<String> whitelistCache = new HashSet<>();
-    public static volatile Set<String> blacklistCache = new HashSet<>();
-    public static volatile Set<String> projectileTypesCache = new HashSet<>();
+    // 物品 -> 是否清理（已折叠白/黑名单模式、标签与通配条目）
+    private static volatile Reference2BooleanOpenHashMap<Item> itemCleanTable = new Reference2BooleanOpenHashMap<>();
+    // 实体类型 -> 是否作为弹射物清理（已折叠clean_projectiles开关）
+    private static volatile Reference2BooleanOpenHashMap<EntityType<?>> projectileCleanTable = new Reference2BooleanOpenHashMap<>();
     private static volatile Set<String> allowPutInDimensionsCache = new HashSet<>();
+    // 决策表版本号，每次重建后递增；实体记录检查时的版本，版本过期时重新检查
+    private static volatile int filterGeneration;
     private static final Map<String, Double> dimensionMultiplierCache = new ConcurrentHashMap<>();
     
     static {
@@ -46,6 +55,13 @@ public class Config {
         return GAMEPLAY.autoCleanTime.get() * 20;
     }
     
+    /**
+     * 获取实体上报的存活时间阈值（tick）
+     */
+    public static int getReportAgeTicks() {
+        return GAMEPLAY.reportAgeSeconds.get() * 20;
+    }
+    
     /**
      * 获取付费物品的ResourceLocation
      */
@@ -74,6 +90,34 @@ public class Config {
         return "whitelist".equals(GAMEPLAY.cleanMode.get());
     }
     
+    /**
+     * 获取清理决策表的当前版本号（尚未构建时为0）
+     */
+    public static int getFilterGeneration() {
+        return filterGeneration;
+    }
+    
+    /**
+     * 查表判断物品类型是否应被清理
+     */
+    public static boolean shouldCleanItemType(Item item) {
+        return itemCleanTable.getBoolean(item);
+    }
+    
+    /**
+     * 查表判断实体类型是否为需要清理的弹射物
+     */
+    public static boolean shouldCleanProjectileType(EntityType<?> type) {
+        return projectileCleanTable.getBoolean(type);
+    }
+    
+    /**
+     * 检查是否为批量扫除清理模式
+     */
+    public static boolean isSweepCleanupMode() {
+        return "sweep".equals(TECHNICAL.cleanupMode.get());
+    }
+    
     /**
      * 获取物品堆叠合并限制
      */
@@ -86,21 +130,56 @@ public class Config {
      */
     public static void updateCaches() {
         try {
-            whitelistCache = new HashSet<>(GAMEPLAY.whitelist.get());
-            blacklistCache = new HashSet<>(GAMEPLAY.blacklist.get());
-            projectileTypesCache = new HashSet<>(GAMEPLAY.projectileTypesToClean.get());
+            rebuildFilters();
             allowPutInDimensionsCache = new HashSet<>(GAMEPLAY.dimensionTrashAllowPutIn.get());
             parseDimensionMultipliers();
         } catch (Exception e) {
             Recyclingservice.LOGGER.error("Failed to update config caches", e);
             
-            if (whitelistCache == null) whitelistCache = new HashSet<>();
-            if (blacklistCache == null) blacklistCache = new HashSet<>();
-            if (projectileTypesCache == null) projectileTypesCache = new HashSet<>();
             if (allowPutInDimensionsCache == null) allowPutInDimensionsCache = new HashSet<>();
         }
     }
     
+    /**
+     * 重建物品与弹射物的清理决策表（配置重载、标签更新时调用）
+     */
+    public static void rebuildFilters() {
+        rebuildItemFilter();
+        rebuildProjectileFilter();
+        // 新表发布后再递增版本，实体看到新版本时一定能查到新表（只在单线程重建）
+        filterGeneration = filterGeneration + 1;
+    }
+    
+    /**
+     * 重建物品清理决策表
+     * 每个物品预先算好是否清理，运行时只需一次引用查表
+     */
+    private static void rebuildItemFilter() {
+        boolean whitelistMode = isWhitelistMode();
+        ReferenceOpenHashSet<Item> listed = RegistryFilter.resolve(BuiltInRegistries.ITEM,
+            whitelistMode ? GAMEPLAY.whitelist.get() : GAMEPLAY.blacklist.get());
+        
+        Reference2BooleanOpenHashMap<Item> table = new Reference2BooleanOpenHashMap<>(BuiltInRegistries.ITEM.size());
+        for (Item item : BuiltInRegistries.ITEM) {
+            // 白名单模式：不在保留列表中的都清理；黑名单模式：只清理黑名单中的
+            table.put(item, whitelistMode != listed.contains(item));
+        }
+        itemCleanTable = table;
+    }
+    
+    /**
+     * 重建弹射物清理决策表，关闭弹射物清理时为空表
+     */
+    private static void rebuildProjectileFilter() {
+        Reference2BooleanOpenHashMap<EntityType<?>> table = new Reference2BooleanOpenHashMap<>();
+        if (GAMEPLAY.cleanProjectiles.get()) {
+            for (EntityType<?> type : RegistryFilter.resolve(BuiltInRegistries.ENTITY_TYPE, GAMEPLAY.projectileTypesToClean.get())) {
+                table.put(type, true);
+            }
+        }
+        projectileCleanTable = table;
+    }
+    
     /**
      * 解析维度倍数配置并更新缓存
      */
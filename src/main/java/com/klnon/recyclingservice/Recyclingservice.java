@@ -1,7 +1,10 @@
 package com.klnon.recyclingservice;
 
 import com.klnon.recyclingservice.content.chunk.ChunkManager;
+import com.klnon.recyclingservice.content.trashbox.TrashBoxManager;
 import com.klnon.recyclingservice.foundation.events.AutoCleanupEvent;
+import com.klnon.recyclingservice.foundation.events.ChunkProfilerEvent;
+import com.klnon.recyclingservice.foundation.events.TickTimeEvent;
 import com.klnon.recyclingservice.foundation.command.BinCommand;
 import org.slf4j.Logger;
 
@@ -16,7 +19,9 @@ import net.neoforged.fml.event.lifecycle.FMLCommonSetupEvent;
 import net.neoforged.neoforge.common.NeoForge;
 import net.neoforged.neoforge.event.server.ServerStartingEvent;
 import net.neoforged.neoforge.event.server.ServerStartedEvent;
+import net.neoforged.neoforge.event.server.ServerStoppingEvent;
 import net.neoforged.neoforge.event.RegisterCommandsEvent;
+import net.neoforged.neoforge.event.TagsUpdatedEvent;
 
 // 这里的值应该与 META-INF/neoforge.mods.toml 文件中的条目匹配
 @Mod(Recyclingservice.MODID)
@@ -39,6 +44,9 @@ public class Recyclingservice {
 
         // 注册自动清理事件处理器
         NeoForge.EVENT_BUS.register(AutoCleanupEvent.class);
+        // 注册区块耗时采样事件处理器
+        NeoForge.EVENT_BUS.register(ChunkProfilerEvent.class);
+        NeoForge.EVENT_BUS.register(TickTimeEvent.class);
 
         // 注册我们模组的 ModConfigSpec，以便 FML 可以为我们创建和加载配置文件
         modContainer.registerConfig(ModConfig.Type.COMMON, Config.SPEC);
@@ -58,6 +66,9 @@ public class Recyclingservice {
         // 初始化性能优化缓存
         Config.updateCaches();
         LOGGER.info("Performance caches initialized");
+        
+        // 打开垃圾箱持久化存储，各维度在首次访问时才读取
+        TrashBoxManager.openStorage(event.getServer());
     }
     
     // 服务器启动完成事件 - 执行启动区块清理
@@ -69,6 +80,20 @@ public class Recyclingservice {
         ChunkManager.performStartupTakeover(event.getServer());
     }
     
+    // 服务器关闭事件 - 写入剩余的垃圾箱变化
+    @SubscribeEvent
+    public void onServerStopping(ServerStoppingEvent event) {
+        TrashBoxManager.closeStorage();
+    }
+    
+    // 数据包重载后标签可能变化，重建过滤决策表
+    @SubscribeEvent
+    public void onTagsUpdated(TagsUpdatedEvent event) {
+        if (event.getUpdateCause() == TagsUpdatedEvent.UpdateCause.SERVER_DATA_LOAD) {
+            Config.rebuildFilters();
+        }
+    }
+    
     // 注册命令事件
     @SubscribeEvent
     public void onRegisterCommands(RegisterCommandsEvent event) {
@@ -1,7 +1,6 @@
 package com.klnon.recyclingservice.content.chunk;
 
 import com.klnon.recyclingservice.Config;
-import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.level.DistanceManager;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.level.Ticket;
@@ -11,11 +10,10 @@ import net.minecraft.world.level.ChunkPos;
 import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 区块缓存 - 极简版本
- * 只存储真正需要的时间信息，状态通过ticket推断
+ * 区块状态由ChunkStateIndex随ticket增删增量维护，物品冻结的解冻时间保存在各维度的FrozenChunkData中
  */
 public class ChunkCache {
     
@@ -32,33 +30,27 @@ public class ChunkCache {
     public static final TicketType<ChunkPos> RECYCLING_SERVICE_TICKET = 
         TicketType.create("recycling_service_chunk", Comparator.comparingLong(ChunkPos::toLong), 600);
     
-    // 唯一真正需要存储的信息：物品冻结区块的解冻时间
-    private static final Map<ResourceLocation, Map<ChunkPos, Long>> itemFrozenChunks = new ConcurrentHashMap<>();
-
     
     /**
-     * 获取维度中指定状态的区块列表（基于tickets推断）
+     * 获取维度中指定状态的区块列表（区块状态索引，O(结果数量)）
+     * @param limit 最多返回的数量
      */
-    public static List<ChunkPos> getChunksByState(ResourceLocation dimension, ChunkState state, ServerLevel level) {
-        List<ChunkPos> result = new ArrayList<>();
-        
-        try {
-            DistanceManager distanceManager = level.getChunkSource().distanceManager;
-            Long2ObjectOpenHashMap<SortedArraySet<Ticket<?>>> tickets = distanceManager.tickets;
-            
-            tickets.forEach((encodedPos, ticketSet) -> {
-                ChunkPos chunkPos = new ChunkPos(encodedPos);
-                ChunkState currentState = getChunkState(dimension, chunkPos, ticketSet);
-                
-                if (currentState == state) {
-                    result.add(chunkPos);
-                }
-            });
-        } catch (Exception e) {
-            // 推断失败，返回空列表
-        }
-        
-        return result;
+    public static List<ChunkPos> getChunksByState(ChunkState state, ServerLevel level, int limit) {
+        return getStateIndex(level).getChunks(state, limit);
+    }
+    
+    /**
+     * 获取维度的区块状态索引
+     */
+    public static ChunkStateIndex getStateIndex(ServerLevel level) {
+        return ((ChunkStateHolder) level.getChunkSource().distanceManager).recyclingservice$getChunkStates();
+    }
+    
+    /**
+     * 标记区块为性能冻结（移除管理ticket后调用），恢复时重新添加管理ticket即回到MANAGED
+     */
+    public static void markPerformanceFrozen(ChunkPos pos, ServerLevel level) {
+        getStateIndex(level).setState(pos.toLong(), ChunkState.PERFORMANCE_FROZEN);
     }
     
     // ================== 物品冻结管理 ==================
@@ -66,16 +58,16 @@ public class ChunkCache {
     /**
      * 冻结区块（物品过多）
      */
-    public static boolean freezeChunkForItems(ResourceLocation dimension, ChunkPos pos, ServerLevel level) {
+    public static boolean freezeChunkForItems(ChunkPos pos, ServerLevel level) {
         try {
             // 移除非白名单tickets
             int frozenTickets = freezeChunkTickets(pos, level);
             
             if (frozenTickets > 0) {
-                // 记录解冻时间
-                long unfreezeTime = System.currentTimeMillis() + Config.TECHNICAL.itemFreezeHours.get() * 3600_000L;
-                itemFrozenChunks.computeIfAbsent(dimension, k -> new ConcurrentHashMap<>())
-                    .put(pos, unfreezeTime);
+                // 记录解冻的游戏刻
+                long unfreezeTick = level.getGameTime() + Config.TECHNICAL.itemFreezeHours.get() * 3600L * 20L;
+                FrozenChunkData.get(level).freeze(pos, unfreezeTick);
+                getStateIndex(level).setState(pos.toLong(), ChunkState.ITEM_FROZEN);
                 return true;
             }
         } catch (Exception e) {
@@ -84,31 +76,38 @@ public class ChunkCache {
         return false;
     }
     
+    /**
+     * 重新应用存档中的物品冻结（服务器启动时，在区块接管之前）
+     * 移除启动期间恢复的非白名单tickets，并把区块标记回ITEM_FROZEN
+     * @return 重新冻结的区块数量
+     */
+    public static int restoreItemFrozenChunks(ServerLevel level) {
+        List<ChunkPos> frozenChunks = FrozenChunkData.get(level).getChunks();
+        for (ChunkPos pos : frozenChunks) {
+            freezeChunkTickets(pos, level);
+            getStateIndex(level).setState(pos.toLong(), ChunkState.ITEM_FROZEN);
+        }
+        return frozenChunks.size();
+    }
+    
     /**
      * 检查物品超载区块是否应该解冻
      */
-    public static boolean shouldUnfreezeItemFrozenChunk(ResourceLocation dimension, ChunkPos pos) {
-        Long unfreezeTime = itemFrozenChunks.getOrDefault(dimension, Collections.emptyMap()).get(pos);
-        return unfreezeTime != null && System.currentTimeMillis() >= unfreezeTime;
+    public static boolean shouldUnfreezeItemFrozenChunk(ChunkPos pos, ServerLevel level) {
+        return FrozenChunkData.get(level).isExpired(pos, level.getGameTime());
     }
     
     /**
      * 解冻区块（恢复管理）
      */
-    public static boolean unfreezeChunk(ResourceLocation dimension, ChunkPos pos, ServerLevel level) {
+    public static boolean unfreezeChunk(ChunkPos pos, ServerLevel level) {
         try {
-            // 添加我们的管理ticket
+            // 添加我们的管理ticket，状态索引随之回到MANAGED
             DistanceManager distanceManager = level.getChunkSource().distanceManager;
             distanceManager.addTicket(RECYCLING_SERVICE_TICKET, pos, 31, pos);
             
             // 移除解冻时间记录
-            Map<ChunkPos, Long> dimensionFrozen = itemFrozenChunks.get(dimension);
-            if (dimensionFrozen != null) {
-                dimensionFrozen.remove(pos);
-                if (dimensionFrozen.isEmpty()) {
-                    itemFrozenChunks.remove(dimension);
-                }
-            }
+            FrozenChunkData.get(level).unfreeze(pos);
             return true;
         } catch (Exception e) {
             return false;
@@ -118,8 +117,8 @@ public class ChunkCache {
     /**
      * 获取所有物品冻结的区块
      */
-    public static List<ChunkPos> getItemFrozenChunks(ResourceLocation dimension) {
-        return new ArrayList<>(itemFrozenChunks.getOrDefault(dimension, Collections.emptyMap()).keySet());
+    public static List<ChunkPos> getItemFrozenChunks(ServerLevel level) {
+        return FrozenChunkData.get(level).getChunks();
     }
     
     // ================== Ticket管理 ==================
@@ -180,26 +179,4 @@ public class ChunkCache {
             return 0;
         }
     }
-    
-    // ================== 辅助方法 ==================
-    
-    /**
-     * 根据tickets推断区块状态
-     */
-    private static ChunkState getChunkState(ResourceLocation dimension, ChunkPos pos, SortedArraySet<Ticket<?>> ticketSet) {
-        // 检查是否物品冻结
-        if (itemFrozenChunks.getOrDefault(dimension, Collections.emptyMap()).containsKey(pos)) {
-            return ChunkState.ITEM_FROZEN;
-        }
-        
-        // 检查是否被我们管理
-        boolean hasOurTicket = ticketSet.stream()
-            .anyMatch(ticket -> ticket.getType() == RECYCLING_SERVICE_TICKET);
-        
-        if (hasOurTicket) {
-            return ChunkState.MANAGED;
-        }
-        
-        return ChunkState.UNMANAGED;
-    }
-}
\ No newline at end of file
+}
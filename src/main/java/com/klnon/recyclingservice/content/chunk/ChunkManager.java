@@ -9,9 +9,10 @@ import net.minecraft.server.MinecraftServer;
 public class ChunkManager {
     
     /**
-     * 执行启动区块接管
+     * 执行启动区块接管，先重新冻结存档中的物品冻结区块
      */
     public static void performStartupTakeover(MinecraftServer server) {
+        ChunkService.restoreFrozenChunks(server);
         ChunkService.handleStartupTakeover(server);
     }
 
@@ -24,9 +25,9 @@ public class ChunkManager {
     }
     
     /**
-     * 执行性能调整
+     * 推进MSPT控制回路（每tick调用，按自己的周期执行性能调整）
      */
-    public static void performPerformanceAdjustment(MinecraftServer server) {
-        ChunkService.adjustChunksBasedOnPerformance(server);
+    public static void tickPerformanceControl(MinecraftServer server) {
+        PerformanceController.tick(server);
     }
 }
\ No newline at end of file
@@ -25,7 +25,30 @@ public class ChunkService {
     // ================== 启动接管功能 (原ChunkTakeoverHandler) ==================
     
     /**
-     * 服务器启动时接管区块
+     * 服务器启动时重新冻结存档中的物品冻结区块，必须在接管之前执行
+     * 关闭物品冻结时不恢复（到期解冻由物品监控负责，关闭后不会运行）
+     */
+    public static void restoreFrozenChunks(MinecraftServer server) {
+        if (!Config.TECHNICAL.enableItemBasedFreezing.get()) {
+            return;
+        }
+        
+        try {
+            int restoredCount = 0;
+            for (ServerLevel level : server.getAllLevels()) {
+                restoredCount += ChunkCache.restoreItemFrozenChunks(level);
+            }
+            
+            if (restoredCount > 0) {
+                Recyclingservice.LOGGER.info("Restored {} item-frozen chunks from save data", restoredCount);
+            }
+        } catch (Exception e) {
+            Recyclingservice.LOGGER.error("Failed to restore item-frozen chunks", e);
+        }
+    }
+    
+    /**
+     * 服务器启动时接管区块（跳过物品冻结中的区块）
      */
     public static void handleStartupTakeover(MinecraftServer server) {
         if (!Config.TECHNICAL.enableStartupChunkCleanup.get()) {
@@ -56,10 +79,14 @@ public class ChunkService {
         try {
             // 直接使用 DistanceManager 的 tickets 字段
             var tickets = distanceManager.tickets;
+            // 物品冻结中的区块已在restoreFrozenChunks中重新冻结，不接管
+            FrozenChunkData frozenChunks = Config.TECHNICAL.enableItemBasedFreezing.get()
+                    ? FrozenChunkData.get(level) : null;
 
             // 使用 Stream API 简化逻辑，避免中间集合
             var chunksToManage = tickets.long2ObjectEntrySet()
                     .stream()
+                    .filter(entry -> frozenChunks == null || !frozenChunks.isFrozen(entry.getLongKey()))
                     .filter(entry -> entry.getValue().stream()
                             .anyMatch(ticket -> !ChunkCache.WHITELIST_TICKET_TYPES.contains(ticket.getType())))
                     .mapToLong(Long2ObjectMap.Entry::getLongKey)
@@ -83,60 +110,97 @@ public class ChunkService {
     // ================== 性能控制功能 ==================
 
     /**
-     * 基于性能调整区块
+     * 按控制器输出调整区块（PerformanceController按自己的周期调用）
+     * @param chunkDelta 正数为最多冻结的区块数，负数为最多解冻的区块数
+     * @param errorMs 与阈值的偏差：冻结时为超出冻结阈值的毫秒数，解冻时为低于恢复阈值的毫秒数
      */
-    public static void adjustChunksBasedOnPerformance(MinecraftServer server) {
-        if (!Config.TECHNICAL.enableDynamicChunkManagement.get()) {
-            return;
-        }
-
-        double mspt = PerformanceMonitor.getAverageTickTime(server);
-
-        if (mspt > Config.TECHNICAL.msptThresholdSuspend.get()) {
-            adjustChunksByPerformance(server, ChunkState.MANAGED, ChunkState.PERFORMANCE_FROZEN, "Frozen");
-        } else if (mspt < Config.TECHNICAL.msptThresholdRestore.get()) {
-            adjustChunksByPerformance(server, ChunkState.PERFORMANCE_FROZEN, ChunkState.MANAGED, "Unfrozen");
+    public static void adjustChunksBasedOnPerformance(MinecraftServer server, int chunkDelta, double errorMs) {
+        if (chunkDelta > 0) {
+            freezeExpensiveChunks(server, chunkDelta, errorMs);
+        } else if (chunkDelta < 0) {
+            unfreezeCheapChunks(server, -chunkDelta, errorMs);
         }
     }
 
-    private static void adjustChunksByPerformance(MinecraftServer server,
-                                                  ChunkState fromState,
-                                                  ChunkState toState,
-                                                  String action) {
+    /**
+     * 按采样耗时从高到低冻结MANAGED区块，累计耗时覆盖超出的MSPT即停止，尽量少冻结区块
+     * 优先冻结tick耗时最高的维度，该维度没有候选时再在所有维度中排序；还没有采样数据时按状态索引顺序冻结
+     * @param targetCount 最多冻结的区块数
+     * @param excessMs 超出冻结阈值的毫秒数
+     */
+    private static void freezeExpensiveChunks(MinecraftServer server, int targetCount, double excessMs) {
         try {
-            int targetCount = Config.TECHNICAL.chunkOperationCount.get();
-            int processedCount = 0;
+            int frozenCount = 0;
+            double relievedMs = 0;
 
-            for (ServerLevel level : server.getAllLevels()) {
-                if (processedCount >= targetCount) break;
+            ServerLevel slowest = PerformanceMonitor.getSlowestLevel(server);
+            List<ChunkTickProfiler.RankedChunk> candidates = slowest != null
+                    ? ChunkTickProfiler.mostExpensive(List.of(slowest), targetCount)
+                    : List.of();
+            if (candidates.isEmpty()) {
+                candidates = ChunkTickProfiler.mostExpensive(server.getAllLevels(), targetCount);
+            }
+            if (candidates.isEmpty()) {
+                candidates = unrankedChunks(server, ChunkState.MANAGED, targetCount);
+            }
 
-                ResourceLocation dimension = level.dimension().location();
-                List<ChunkPos> targetChunks = ChunkCache.getChunksByState(dimension, fromState, level);
+            for (ChunkTickProfiler.RankedChunk chunk : candidates) {
+                if (!ChunkCache.removeManagementTicket(chunk.pos(), chunk.level())) continue;
+                // 显式标记，恢复时才能找到这些区块
+                ChunkCache.markPerformanceFrozen(chunk.pos(), chunk.level());
+                ChunkTickProfiler.onFrozen(chunk);
+                frozenCount++;
+                relievedMs += chunk.msPerTick();
+                if (relievedMs >= excessMs) break;
+            }
 
-                for (ChunkPos pos : targetChunks) {
-                    if (processedCount >= targetCount) break;
+            if (frozenCount > 0) {
+                Recyclingservice.LOGGER.info("Performance: Frozen {} chunks ({} ms/tick sampled)",
+                        frozenCount, String.format("%.2f", relievedMs));
+            }
+        } catch (Exception e) {
+            Recyclingservice.LOGGER.debug("Failed to freeze chunks for performance", e);
+        }
+    }
 
-                    // 简化的状态转换：MANAGED <-> PERFORMANCE_FROZEN
-                    boolean success = false;
-                    if (fromState == ChunkState.MANAGED && toState == ChunkState.PERFORMANCE_FROZEN) {
-                        success = ChunkCache.removeManagementTicket(pos, level);
-                    } else if (fromState == ChunkState.PERFORMANCE_FROZEN && toState == ChunkState.MANAGED) {
-                        success = ChunkCache.addManagementTicket(pos, level);
-                    }
+    /**
+     * 按冻结前耗时从低到高解冻区块，累计耗时不超过恢复阈值下的余量（至少解冻一个）
+     * @param targetCount 最多解冻的区块数
+     * @param headroomMs 低于恢复阈值的毫秒数
+     */
+    private static void unfreezeCheapChunks(MinecraftServer server, int targetCount, double headroomMs) {
+        try {
+            int unfrozenCount = 0;
+            double addedMs = 0;
 
-                    if (success) {
-                        processedCount++;
-                    }
-                }
+            for (ChunkTickProfiler.RankedChunk chunk : ChunkTickProfiler.cheapestFrozen(server, targetCount)) {
+                if (unfrozenCount > 0 && addedMs + chunk.msPerTick() > headroomMs) break;
+                if (!ChunkCache.addManagementTicket(chunk.pos(), chunk.level())) continue;
+                ChunkTickProfiler.onUnfrozen(chunk.level(), chunk.pos());
+                unfrozenCount++;
+                addedMs += chunk.msPerTick();
             }
 
-            if (processedCount > 0) {
-                Recyclingservice.LOGGER.info("Performance: {} {} chunks",action, processedCount);
+            if (unfrozenCount > 0) {
+                Recyclingservice.LOGGER.info("Performance: Unfrozen {} chunks", unfrozenCount);
             }
-
         } catch (Exception e) {
-            Recyclingservice.LOGGER.debug("Failed to {} chunks for performance", action.toLowerCase(), e);
+            Recyclingservice.LOGGER.debug("Failed to unfreeze chunks for performance", e);
+        }
+    }
+
+    /**
+     * 没有采样数据时的候选区块：按状态索引顺序，耗时记为0
+     */
+    private static List<ChunkTickProfiler.RankedChunk> unrankedChunks(MinecraftServer server, ChunkState state, int limit) {
+        List<ChunkTickProfiler.RankedChunk> result = new ArrayList<>();
+        for (ServerLevel level : server.getAllLevels()) {
+            for (ChunkPos pos : ChunkCache.getChunksByState(state, level, limit - result.size())) {
+                result.add(new ChunkTickProfiler.RankedChunk(level, pos, 0.0));
+            }
+            if (result.size() >= limit) break;
         }
+        return result;
     }
 
 
@@ -161,7 +225,7 @@ public class ChunkService {
                 // 直接冻结超载区块
                 List<ChunkPos> overloadedChunks = CleanupManager.getOverloadedChunks(dimension);
                 for (ChunkPos chunkPos : overloadedChunks) {
-                    if (ChunkCache.freezeChunkForItems(dimension, chunkPos, level)) {
+                    if (ChunkCache.freezeChunkForItems(chunkPos, level)) {
                         totalFrozenCount++;
                         Recyclingservice.LOGGER.debug("Frozen overloaded chunk ({}, {}) due to items", 
                             chunkPos.x, chunkPos.z);
@@ -187,13 +251,13 @@ public class ChunkService {
         
         try {
             // 获取所有物品冻结的区块
-            List<ChunkPos> frozenChunks = ChunkCache.getItemFrozenChunks(dimension);
+            List<ChunkPos> frozenChunks = ChunkCache.getItemFrozenChunks(level);
             
             for (ChunkPos chunkPos : frozenChunks) {
                 // 检查是否到期
-                if (ChunkCache.shouldUnfreezeItemFrozenChunk(dimension, chunkPos)) {
+                if (ChunkCache.shouldUnfreezeItemFrozenChunk(chunkPos, level)) {
                     // 解冻：恢复管理
-                    if (ChunkCache.unfreezeChunk(dimension, chunkPos, level)) {
+                    if (ChunkCache.unfreezeChunk(chunkPos, level)) {
                         unfrozenCount++;
                         Recyclingservice.LOGGER.debug("Unfrozen expired chunk ({}, {})", 
                             chunkPos.x, chunkPos.z);
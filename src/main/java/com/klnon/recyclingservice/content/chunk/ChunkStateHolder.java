@@ -0,0 +1,12 @@
+package com.klnon.recyclingservice.content.chunk;
+
+/**
+ * 区块状态索引句柄接口 - 由DistanceManager的Mixin实现
+ */
+public interface ChunkStateHolder {
+
+    /**
+     * 获取本维度的区块状态索引
+     */
+    ChunkStateIndex recyclingservice$getChunkStates();
+}
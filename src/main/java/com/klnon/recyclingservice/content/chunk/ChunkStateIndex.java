@@ -0,0 +1,131 @@
+package com.klnon.recyclingservice.content.chunk;
+
+import it.unimi.dsi.fastutil.longs.*;
+import net.minecraft.world.level.ChunkPos;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongPredicate;
+
+/**
+ * 区块状态索引 - 每个DistanceManager一个，由DistanceManagerChunkStateMixin在ticket增删时增量维护
+ * 只记录被我们管理或冻结的区块，不在索引中的区块视为UNMANAGED
+ * 按状态查询只与结果数量相关，不再遍历DistanceManager的全部tickets
+ * 只在服务端线程使用
+ */
+public class ChunkStateIndex {
+
+    private static final ChunkState[] STATES = ChunkState.values();
+    private static final byte UNMANAGED = (byte) ChunkState.UNMANAGED.ordinal();
+
+    // 区块坐标 -> 状态序号
+    private final Long2ByteOpenHashMap states = new Long2ByteOpenHashMap();
+    // 状态序号 -> 该状态的区块（按进入顺序），UNMANAGED不保存
+    private final LongLinkedOpenHashSet[] chunksByState = new LongLinkedOpenHashSet[STATES.length];
+
+    // 管理ticket到期队列：ticket超时由DistanceManager直接清除，不经过removeTicket
+    private final LongArrayFIFOQueue expiryChunks = new LongArrayFIFOQueue();
+    private final LongArrayFIFOQueue expiryTicks = new LongArrayFIFOQueue();
+    // 区块最近一次添加管理ticket的到期时间，重复添加会刷新ticket，旧的队列项据此跳过
+    private final Long2LongOpenHashMap latestExpiry = new Long2LongOpenHashMap();
+
+    public ChunkStateIndex() {
+        states.defaultReturnValue(UNMANAGED);
+        for (int i = 0; i < STATES.length; i++) {
+            if (i != UNMANAGED) {
+                chunksByState[i] = new LongLinkedOpenHashSet();
+            }
+        }
+    }
+
+    public ChunkState getState(long chunkPos) {
+        return STATES[states.get(chunkPos)];
+    }
+
+    /**
+     * 设置区块状态，UNMANAGED即从索引中移除
+     */
+    public void setState(long chunkPos, ChunkState state) {
+        byte next = (byte) state.ordinal();
+        byte previous = next == UNMANAGED ? states.remove(chunkPos) : states.put(chunkPos, next);
+        if (previous == next) {
+            return;
+        }
+        if (previous != UNMANAGED) {
+            chunksByState[previous].remove(chunkPos);
+        }
+        if (next != UNMANAGED) {
+            chunksByState[next].add(chunkPos);
+        }
+    }
+
+    /**
+     * 获取指定状态的区块（副本，最早进入该状态的在前）
+     * UNMANAGED区块不在索引中，返回空列表
+     * @param limit 最多返回的数量
+     */
+    public List<ChunkPos> getChunks(ChunkState state, int limit) {
+        LongLinkedOpenHashSet chunks = chunksByState[state.ordinal()];
+        if (chunks == null || chunks.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        List<ChunkPos> result = new ArrayList<>(Math.min(limit, chunks.size()));
+        LongIterator iterator = chunks.iterator();
+        while (iterator.hasNext() && result.size() < limit) {
+            result.add(new ChunkPos(iterator.nextLong()));
+        }
+        return result;
+    }
+
+    public int count(ChunkState state) {
+        LongLinkedOpenHashSet chunks = chunksByState[state.ordinal()];
+        return chunks != null ? chunks.size() : 0;
+    }
+
+    // === ticket事件（由Mixin调用） ===
+
+    /**
+     * 添加了管理ticket：区块进入MANAGED（解除冻结），并登记到期时间
+     */
+    public void onManagementTicketAdded(long chunkPos, long expiryTick) {
+        setState(chunkPos, ChunkState.MANAGED);
+        latestExpiry.put(chunkPos, expiryTick);
+        expiryChunks.enqueue(chunkPos);
+        expiryTicks.enqueue(expiryTick);
+    }
+
+    /**
+     * 移除了管理ticket：MANAGED区块回到UNMANAGED，冻结状态由调用方显式维护
+     */
+    public void onManagementTicketRemoved(long chunkPos) {
+        latestExpiry.remove(chunkPos);
+        if (states.get(chunkPos) == ChunkState.MANAGED.ordinal()) {
+            setState(chunkPos, ChunkState.UNMANAGED);
+        }
+    }
+
+    /**
+     * 处理到期的管理ticket（DistanceManager清除超时ticket之后调用）
+     * 仍持有ticket的区块（计时与预期不一致）在下一tick重新检查，不会丢失
+     * 重新入队的项可能排在更晚到期的项之后，只会推迟检查，不影响正确性
+     * @param now DistanceManager的ticket计时
+     * @param stillTicketed 区块是否仍持有管理ticket
+     */
+    public void expire(long now, LongPredicate stillTicketed) {
+        while (!expiryTicks.isEmpty() && expiryTicks.firstLong() <= now) {
+            long chunkPos = expiryChunks.dequeueLong();
+            long expiryTick = expiryTicks.dequeueLong();
+            // 之后又被刷新或已移除的旧队列项
+            if (!latestExpiry.containsKey(chunkPos) || latestExpiry.get(chunkPos) != expiryTick) {
+                continue;
+            }
+            if (stillTicketed.test(chunkPos)) {
+                latestExpiry.put(chunkPos, now + 1);
+                expiryChunks.enqueue(chunkPos);
+                expiryTicks.enqueue(now + 1);
+            } else {
+                onManagementTicketRemoved(chunkPos);
+            }
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.klnon.recyclingservice.content.chunk;
+
+import com.klnon.recyclingservice.Config;
+import it.unimi.dsi.fastutil.longs.Long2LongMap;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+
+import java.util.*;
+
+/**
+ * 区块tick耗时采样器 - 为性能冻结提供按耗时排序的候选区块
+ * 每隔profile_sample_interval个tick采样一次，只统计MANAGED区块内实体与方块实体的tick耗时
+ * 每WINDOW_SAMPLES次采样结算一个窗口，冻结时取上个窗口最耗时的区块，解冻时取冻结前耗时最低的区块
+ * 非采样tick的钩子只做一次布尔判断，不调用System.nanoTime
+ * 状态只在服务端线程读写：异步tick实体或方块实体的模组在其他线程调用钩子时直接忽略，不计入耗时
+ */
+public class ChunkTickProfiler {
+
+    // 每个结算窗口包含的采样tick数
+    private static final int WINDOW_SAMPLES = 10;
+
+    private static final Map<ResourceLocation, CostTable> tables = new HashMap<>();
+    private static boolean sampling = false;
+    private static int tickCounter = 0;
+    private static int windowSamples = 0;
+    private static long entityStart = 0L;
+    private static long blockEntityStart = 0L;
+    // 实体与方块实体按维度成批tick，缓存上一次的维度避免重复查表
+    private static Level lastLevel;
+    private static CostTable lastTable;
+
+    /**
+     * 排序结果：区块及其平均每tick耗时（毫秒）
+     */
+    public record RankedChunk(ServerLevel level, ChunkPos pos, double msPerTick) {}
+
+    // === 采样钩子 ===
+
+    /**
+     * 服务器tick开始时调用，决定本tick是否采样
+     */
+    public static void onServerTickStart() {
+        if (!Config.TECHNICAL.enableDynamicChunkManagement.get()) {
+            sampling = false;
+            return;
+        }
+        sampling = ++tickCounter % Config.TECHNICAL.profileSampleInterval.get() == 0;
+        if (!sampling) {
+            return;
+        }
+        if (windowSamples == WINDOW_SAMPLES) {
+            tables.values().forEach(CostTable::closeWindow);
+            windowSamples = 0;
+        }
+        windowSamples++;
+    }
+
+    /**
+     * 每次都覆盖起始时间：Pre被取消时没有对应的Post，残留的起始时间不能被下一个实体沿用
+     */
+    public static void startEntity(Entity entity) {
+        if (!isServerThread(entity.level())) return;
+        entityStart = sampling ? System.nanoTime() : 0L;
+    }
+
+    public static void endEntity(Entity entity) {
+        if (!isServerThread(entity.level()) || entityStart == 0L) return;
+        long elapsed = System.nanoTime() - entityStart;
+        entityStart = 0L;
+        record(entity.level(), entity.chunkPosition().toLong(), elapsed);
+    }
+
+    public static void startBlockEntity(Level level) {
+        if (!isServerThread(level)) return;
+        blockEntityStart = sampling ? System.nanoTime() : 0L;
+    }
+
+    public static void endBlockEntity(Level level, BlockPos pos) {
+        if (!isServerThread(level) || blockEntityStart == 0L) return;
+        long elapsed = System.nanoTime() - blockEntityStart;
+        blockEntityStart = 0L;
+        record(level, ChunkPos.asLong(pos.getX() >> 4, pos.getZ() >> 4), elapsed);
+    }
+
+    /**
+     * 是否在维度所属服务器的主线程（其他线程的起始时间与耗时表写入会互相覆盖）
+     */
+    private static boolean isServerThread(Level level) {
+        MinecraftServer server = level.getServer();
+        return server != null && server.isSameThread();
+    }
+
+    /**
+     * 清空所有采样状态（服务器停止时调用），避免下次启动沿用旧世界的维度与耗时表
+     */
+    public static void reset() {
+        tables.clear();
+        sampling = false;
+        tickCounter = 0;
+        windowSamples = 0;
+        entityStart = 0L;
+        blockEntityStart = 0L;
+        lastLevel = null;
+        lastTable = null;
+    }
+
+    // === 排序查询 ===
+
+    /**
+     * 指定维度中上个窗口最耗时的MANAGED区块（有界最小堆，O(m log n)）
+     * @param levels 参与排序的维度
+     * @param limit 最多返回的数量
+     * @return 按耗时从高到低排列
+     */
+    public static List<RankedChunk> mostExpensive(Iterable<ServerLevel> levels, int limit) {
+        PriorityQueue<RankedChunk> heap = new PriorityQueue<>(Comparator.comparingDouble(RankedChunk::msPerTick));
+        for (ServerLevel level : levels) {
+            CostTable table = tables.get(level.dimension().location());
+            if (table == null || table.completedSamples == 0) continue;
+
+            ChunkStateIndex index = ChunkCache.getStateIndex(level);
+            for (Long2LongMap.Entry entry : table.completed.long2LongEntrySet()) {
+                long chunkPos = entry.getLongKey();
+                if (index.getState(chunkPos) != ChunkState.MANAGED) continue;
+                offer(heap, limit, new RankedChunk(level, new ChunkPos(chunkPos),
+                        table.toMsPerTick(entry.getLongValue())), true);
+            }
+        }
+        return drain(heap);
+    }
+
+    /**
+     * 所有维度中冻结前耗时最低的PERFORMANCE_FROZEN区块（有界最大堆）
+     * 没有耗时记录的区块按0处理，优先解冻
+     * @param limit 最多返回的数量
+     * @return 按耗时从低到高排列
+     */
+    public static List<RankedChunk> cheapestFrozen(MinecraftServer server, int limit) {
+        PriorityQueue<RankedChunk> heap = new PriorityQueue<>(
+                Comparator.comparingDouble(RankedChunk::msPerTick).reversed());
+        for (ServerLevel level : server.getAllLevels()) {
+            ChunkStateIndex index = ChunkCache.getStateIndex(level);
+            if (index.count(ChunkState.PERFORMANCE_FROZEN) == 0) continue;
+
+            CostTable table = tables.get(level.dimension().location());
+            for (ChunkPos pos : index.getChunks(ChunkState.PERFORMANCE_FROZEN, Integer.MAX_VALUE)) {
+                double cost = table != null ? table.frozenCosts.get(pos.toLong()) / 1_000_000.0 : 0.0;
+                offer(heap, limit, new RankedChunk(level, pos, cost), false);
+            }
+        }
+        return drain(heap);
+    }
+
+    /**
+     * 区块被性能冻结时记录其耗时，供解冻排序使用
+     */
+    public static void onFrozen(RankedChunk chunk) {
+        table(chunk.level()).frozenCosts.put(chunk.pos().toLong(), Math.round(chunk.msPerTick() * 1_000_000.0));
+    }
+
+    /**
+     * 区块解冻后移除耗时记录
+     */
+    public static void onUnfrozen(ServerLevel level, ChunkPos pos) {
+        CostTable table = tables.get(level.dimension().location());
+        if (table != null) {
+            table.frozenCosts.remove(pos.toLong());
+        }
+    }
+
+    // === 内部方法 ===
+
+    private static void record(Level level, long chunkPos, long nanos) {
+        if (!(level instanceof ServerLevel serverLevel)) return;
+        if (ChunkCache.getStateIndex(serverLevel).getState(chunkPos) != ChunkState.MANAGED) return;
+        table(serverLevel).current.addTo(chunkPos, nanos);
+    }
+
+    private static CostTable table(ServerLevel level) {
+        if (level != lastLevel) {
+            lastTable = tables.computeIfAbsent(level.dimension().location(), k -> new CostTable());
+            lastLevel = level;
+        }
+        return lastTable;
+    }
+
+    /**
+     * 有界堆：堆顶是当前保留结果中最差的一个，新元素更好时替换堆顶
+     */
+    private static void offer(PriorityQueue<RankedChunk> heap, int limit, RankedChunk chunk, boolean keepHighest) {
+        if (heap.size() < limit) {
+            heap.add(chunk);
+            return;
+        }
+        RankedChunk worst = heap.peek();
+        if (worst != null && (keepHighest ? chunk.msPerTick() > worst.msPerTick() : chunk.msPerTick() < worst.msPerTick())) {
+            heap.poll();
+            heap.add(chunk);
+        }
+    }
+
+    private static List<RankedChunk> drain(PriorityQueue<RankedChunk> heap) {
+        List<RankedChunk> result = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            result.add(heap.poll());
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    /**
+     * 单维度的耗时表
+     */
+    private static class CostTable {
+        // 当前窗口累计耗时（纳秒）
+        Long2LongOpenHashMap current = new Long2LongOpenHashMap();
+        // 上个窗口累计耗时（纳秒）及其采样次数
+        Long2LongOpenHashMap completed = new Long2LongOpenHashMap();
+        int completedSamples = 0;
+        // 性能冻结区块冻结前的平均每tick耗时（纳秒）
+        final Long2LongOpenHashMap frozenCosts = new Long2LongOpenHashMap();
+
+        void closeWindow() {
+            Long2LongOpenHashMap finished = current;
+            current = completed;
+            current.clear();
+            completed = finished;
+            completedSamples = WINDOW_SAMPLES;
+        }
+
+        double toMsPerTick(long nanos) {
+            return nanos / (double) completedSamples / 1_000_000.0;
+        }
+    }
+}
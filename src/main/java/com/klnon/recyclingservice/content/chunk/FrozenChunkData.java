@@ -0,0 +1,96 @@
+package com.klnon.recyclingservice.content.chunk;
+
+import com.klnon.recyclingservice.Recyclingservice;
+import it.unimi.dsi.fastutil.longs.Long2LongMap;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import net.minecraft.core.HolderLookup;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.saveddata.SavedData;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 物品冻结区块存档 - 每个维度一份，随维度的其他数据一起保存
+ * 解冻时间使用维度的游戏刻（getGameTime），服务器关闭期间不计时，重启后冻结继续生效
+ * 只在服务端线程使用
+ */
+public class FrozenChunkData extends SavedData {
+
+    private static final String DATA_NAME = Recyclingservice.MODID + "_frozen_chunks";
+    private static final SavedData.Factory<FrozenChunkData> FACTORY =
+            new SavedData.Factory<>(FrozenChunkData::new, FrozenChunkData::load, null);
+
+    // 区块坐标 -> 解冻的游戏刻
+    private final Long2LongOpenHashMap unfreezeTicks = new Long2LongOpenHashMap();
+
+    /**
+     * 获取维度的冻结区块存档，首次访问时从磁盘读取
+     */
+    public static FrozenChunkData get(ServerLevel level) {
+        return level.getDataStorage().computeIfAbsent(FACTORY, DATA_NAME);
+    }
+
+    public void freeze(ChunkPos pos, long unfreezeTick) {
+        unfreezeTicks.put(pos.toLong(), unfreezeTick);
+        setDirty();
+    }
+
+    public void unfreeze(ChunkPos pos) {
+        if (unfreezeTicks.containsKey(pos.toLong())) {
+            unfreezeTicks.remove(pos.toLong());
+            setDirty();
+        }
+    }
+
+    public boolean isFrozen(long chunkPos) {
+        return unfreezeTicks.containsKey(chunkPos);
+    }
+
+    /**
+     * 是否已到解冻时间
+     */
+    public boolean isExpired(ChunkPos pos, long gameTime) {
+        return unfreezeTicks.containsKey(pos.toLong()) && gameTime >= unfreezeTicks.get(pos.toLong());
+    }
+
+    /**
+     * 获取所有冻结区块（副本）
+     */
+    public List<ChunkPos> getChunks() {
+        List<ChunkPos> chunks = new ArrayList<>(unfreezeTicks.size());
+        for (long chunkPos : unfreezeTicks.keySet()) {
+            chunks.add(new ChunkPos(chunkPos));
+        }
+        return chunks;
+    }
+
+    // === 序列化 ===
+
+    private static FrozenChunkData load(CompoundTag tag, HolderLookup.Provider registries) {
+        FrozenChunkData data = new FrozenChunkData();
+        long[] chunks = tag.getLongArray("chunks");
+        long[] ticks = tag.getLongArray("unfreeze_ticks");
+        for (int i = 0; i < Math.min(chunks.length, ticks.length); i++) {
+            data.unfreezeTicks.put(chunks[i], ticks[i]);
+        }
+        return data;
+    }
+
+    @Override
+    public CompoundTag save(CompoundTag tag, HolderLookup.Provider registries) {
+        long[] chunks = new long[unfreezeTicks.size()];
+        long[] ticks = new long[unfreezeTicks.size()];
+        int i = 0;
+        for (Long2LongMap.Entry entry : unfreezeTicks.long2LongEntrySet()) {
+            chunks[i] = entry.getLongKey();
+            ticks[i] = entry.getLongValue();
+            i++;
+        }
+        tag.putLongArray("chunks", chunks);
+        tag.putLongArray("unfreeze_ticks", ticks);
+        return tag;
+    }
+}
@@ -0,0 +1,85 @@
+package com.klnon.recyclingservice.content.chunk;
+
+import com.klnon.recyclingservice.Config;
+import net.minecraft.server.MinecraftServer;
+
+/**
+ * MSPT控制器 - 动态区块管理的独立控制回路
+ * 每control_interval_seconds秒读取一次MSPT（最近perf_window_ticks个tick的中位数），按与阈值的偏差计算本次冻结/解冻的区块数：
+ * - 死区：MSPT介于恢复阈值与冻结阈值之间时不动作，积分逐步衰减，避免区块在MANAGED与PERFORMANCE_FROZEN之间反复切换
+ * - 高于冻结阈值：误差为正，冻结；低于恢复阈值：误差为负，解冻
+ * - 输出 = kp × 误差 + ki × 误差积分，积分限幅防止饱和，误差换向时清零
+ * - 每次动作的区块数不超过chunk_operation_count（速率限制）
+ * 只在服务端线程使用
+ */
+public class PerformanceController {
+
+    // 死区内每个周期积分保留的比例
+    private static final double INTEGRAL_DECAY = 0.5;
+
+    private static int ticks = 0;
+    private static double integral = 0.0;
+
+    /**
+     * 每tick调用，到达控制周期时执行一次控制
+     */
+    public static void tick(MinecraftServer server) {
+        if (!Config.TECHNICAL.enableDynamicChunkManagement.get()) {
+            reset();
+            return;
+        }
+        int intervalTicks = Config.TECHNICAL.controlIntervalSeconds.get() * 20;
+        if (++ticks < intervalTicks) {
+            return;
+        }
+        ticks = 0;
+        control(server, intervalTicks / 20.0);
+    }
+
+    /**
+     * 重置控制器状态（关闭动态管理、服务器停止时）
+     */
+    public static void reset() {
+        ticks = 0;
+        integral = 0.0;
+    }
+
+    // === 内部方法 ===
+
+    private static void control(MinecraftServer server, double dtSeconds) {
+        double mspt = PerformanceMonitor.getTickTime();
+        if (mspt <= 0) {
+            return;
+        }
+        double suspend = Config.TECHNICAL.msptThresholdSuspend.get();
+        double restore = Config.TECHNICAL.msptThresholdRestore.get();
+
+        double error;
+        if (mspt > suspend) {
+            error = mspt - suspend;
+        } else if (mspt < restore) {
+            error = mspt - restore;
+        } else {
+            integral *= INTEGRAL_DECAY;
+            return;
+        }
+
+        // 误差换向时清零积分，避免上一方向的累计推动反向动作
+        if (integral != 0.0 && Math.signum(integral) != Math.signum(error)) {
+            integral = 0.0;
+        }
+        double ki = Config.TECHNICAL.controllerKi.get();
+        integral += error * dtSeconds;
+        int maxStep = Config.TECHNICAL.chunkOperationCount.get();
+        if (ki > 0) {
+            double limit = maxStep / ki;
+            integral = Math.max(-limit, Math.min(limit, integral));
+        }
+
+        double output = Config.TECHNICAL.controllerKp.get() * error + ki * integral;
+        int chunkDelta = (int) Math.max(-maxStep, Math.min(maxStep, Math.round(output)));
+        if (chunkDelta != 0) {
+            ChunkService.adjustChunksBasedOnPerformance(server, chunkDelta, Math.abs(error));
+        }
+    }
+}
@@ -1,46 +1,97 @@
 package com.klnon.recyclingservice.content.chunk;
 
+import com.klnon.recyclingservice.Config;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.level.ServerLevel;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * 服务器性能监控器
- * 负责服务器tick时间监控和性能阈值判断
+ * 分别记录整个服务器tick与每个维度tick的耗时，窗口内按分位数统计
+ * 中位数不受单次GC停顿影响，p99/max用于观察尖峰；维度统计用于找出真正卡顿的维度
+ * 只在服务端线程使用
  */
 public class PerformanceMonitor {
-    
+
+    private static final TickTimeWindow serverWindow = new TickTimeWindow(100);
+    private static final Map<ResourceLocation, TickTimeWindow> dimensionWindows = new LinkedHashMap<>();
+
+    // === 计时钩子（tick事件调用） ===
+
+    public static void onServerTickStart() {
+        serverWindow.start();
+    }
+
+    public static void onServerTickEnd() {
+        serverWindow.end(Config.TECHNICAL.perfWindowTicks.get());
+    }
+
+    public static void onLevelTickStart(ServerLevel level) {
+        dimensionWindows.computeIfAbsent(level.dimension().location(),
+                k -> new TickTimeWindow(Config.TECHNICAL.perfWindowTicks.get())).start();
+    }
+
+    public static void onLevelTickEnd(ServerLevel level) {
+        TickTimeWindow window = dimensionWindows.get(level.dimension().location());
+        if (window != null) {
+            window.end(Config.TECHNICAL.perfWindowTicks.get());
+        }
+    }
+
     /**
-     * 获取服务器平均tick时间（MSPT）
-     * @param server 服务器实例
-     * @return 平均tick时间（毫秒）
+     * 清空服务器与各维度的耗时窗口（服务器停止时调用）
+     * 单人游戏重新进入世界时不沿用上个世界的样本与维度
      */
-    public static double getAverageTickTime(MinecraftServer server) {
-        try {
-            ResourceLocation overworldKey = ResourceLocation.parse("minecraft:overworld");
-            long[] recentTicks = server.getTickTime(net.minecraft.resources.ResourceKey.create(
-                net.minecraft.core.registries.Registries.DIMENSION, overworldKey));
-            
-            if (recentTicks == null || recentTicks.length == 0) {
-                return 50.0;
-            }
-            
-            long sum = 0;
-            int count = 0;
-            for (int i = recentTicks.length - 1; i >= Math.max(0, recentTicks.length - 20); i--) {
-                if (recentTicks[i] > 0) {
-                    sum += recentTicks[i];
-                    count++;
-                }
-            }
-            
-            if (count == 0) {
-                return 50.0;
+    public static void reset() {
+        serverWindow.clear();
+        dimensionWindows.clear();
+    }
+
+    // === 查询 ===
+
+    /**
+     * 整个服务器的tick耗时统计
+     */
+    public static TickTimeWindow.Stats getServerStats() {
+        return serverWindow.stats();
+    }
+
+    /**
+     * 各维度的tick耗时统计
+     */
+    public static Map<ResourceLocation, TickTimeWindow.Stats> getDimensionStats() {
+        Map<ResourceLocation, TickTimeWindow.Stats> stats = new LinkedHashMap<>();
+        dimensionWindows.forEach((dimension, window) -> stats.put(dimension, window.stats()));
+        return stats;
+    }
+
+    /**
+     * 获取服务器tick耗时（MSPT，窗口中位数）
+     * @return 毫秒，还没有样本时为0
+     */
+    public static double getTickTime() {
+        return serverWindow.stats().p50();
+    }
+
+    /**
+     * 获取中位tick耗时最高的维度
+     * @return 还没有样本时为null
+     */
+    public static ServerLevel getSlowestLevel(MinecraftServer server) {
+        ServerLevel slowest = null;
+        double slowestTime = 0;
+        for (ServerLevel level : server.getAllLevels()) {
+            TickTimeWindow window = dimensionWindows.get(level.dimension().location());
+            if (window == null) continue;
+            double time = window.stats().p50();
+            if (time > slowestTime) {
+                slowestTime = time;
+                slowest = level;
             }
-            
-            return ((double) sum / count) / 1_000_000.0;
-            
-        } catch (Exception e) {
-            return 50.0;
         }
+        return slowest;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,76 @@
+package com.klnon.recyclingservice.content.chunk;
+
+import java.util.Arrays;
+
+/**
+ * tick耗时环形缓冲 - 保存最近N个tick的耗时（纳秒），按需计算分位数
+ * 单写者（服务端线程）；窗口大小变化时下一次记录会重新分配
+ */
+public class TickTimeWindow {
+
+    /**
+     * 窗口统计，单位毫秒
+     */
+    public record Stats(int samples, double p50, double p95, double p99, double max) {
+        public static final Stats EMPTY = new Stats(0, 0, 0, 0, 0);
+    }
+
+    private long[] samples;
+    private int next = 0;
+    private int count = 0;
+    private long startNanos = 0L;
+
+    public TickTimeWindow(int size) {
+        this.samples = new long[size];
+    }
+
+    public void start() {
+        startNanos = System.nanoTime();
+    }
+
+    /**
+     * 结束计时并记录一次tick耗时
+     * @param size 当前配置的窗口大小
+     */
+    public void end(int size) {
+        if (startNanos == 0L) return;
+        long elapsed = System.nanoTime() - startNanos;
+        startNanos = 0L;
+
+        if (samples.length != size) {
+            samples = new long[size];
+            next = 0;
+            count = 0;
+        }
+        samples[next] = elapsed;
+        next = (next + 1) % samples.length;
+        if (count < samples.length) count++;
+    }
+
+    /**
+     * 丢弃全部样本与未结束的计时
+     */
+    public void clear() {
+        next = 0;
+        count = 0;
+        startNanos = 0L;
+    }
+
+    /**
+     * 计算窗口内的分位数（复制后排序，窗口最多数千个样本）
+     */
+    public Stats stats() {
+        if (count == 0) {
+            return Stats.EMPTY;
+        }
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        return new Stats(count, percentile(sorted, 0.50), percentile(sorted, 0.95),
+                percentile(sorted, 0.99), sorted[count - 1] / 1_000_000.0);
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        int index = Math.max(0, (int) Math.ceil(p * sorted.length) - 1);
+        return sorted[index] / 1_000_000.0;
+    }
+}
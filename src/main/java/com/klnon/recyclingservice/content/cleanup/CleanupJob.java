@@ -0,0 +1,228 @@
+package com.klnon.recyclingservice.content.cleanup;
+
+import com.klnon.recyclingservice.Config;
+import com.klnon.recyclingservice.Recyclingservice;
+import com.klnon.recyclingservice.content.cleanup.CleanupService.CleanupResult;
+import com.klnon.recyclingservice.content.cleanup.CleanupService.DimensionCleanupStats;
+import com.klnon.recyclingservice.content.cleanup.entity.DimensionEntityCache;
+import com.klnon.recyclingservice.content.cleanup.entity.EntityCache;
+import com.klnon.recyclingservice.content.cleanup.entity.EntityFilter;
+import com.klnon.recyclingservice.content.trashbox.TrashBoxManager;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.entity.item.ItemEntity;
+
+import java.util.*;
+
+/**
+ * 可续跑的清理任务 - 把统计、失效清理和sweep移除分摊到连续多个tick
+ * 每tick处理到时间预算耗尽为止（sweep模式另受实体数量上限约束），下个tick从断点继续
+ * 全部维度处理完毕后生成清理结果；signal模式在此时才激活删除信号
+ */
+public class CleanupJob {
+
+    // 每处理多少个实体检查一次时间，减少System.nanoTime调用
+    private static final int TIME_CHECK_INTERVAL = 32;
+
+    private final MinecraftServer server;
+    private final boolean sweepMode;
+    private final ArrayDeque<ServerLevel> pendingLevels;
+
+    // 结果统计
+    private final Map<ResourceLocation, DimensionCleanupStats> dimensionStats = new HashMap<>();
+    private int totalItemsCleaned = 0;
+    private int totalProjectilesCleaned = 0;
+
+    // 进度统计
+    private final int totalEntities;
+    private int processedEntities = 0;
+    private int ticksUsed = 0;
+    private long workNanos = 0;
+
+    // 当前维度的断点
+    private DimensionEntityCache currentCache;
+    private Entity[] currentEntities;
+    private int index;
+    private int itemCount;
+    private int projectileCount;
+    // sweep模式本片待放入垃圾箱的物品实体
+    private final List<ItemEntity> pendingItems = new ArrayList<>();
+
+    private CleanupResult result;
+
+    public CleanupJob(MinecraftServer server) {
+        this.server = server;
+        this.sweepMode = Config.isSweepCleanupMode();
+        this.pendingLevels = new ArrayDeque<>();
+
+        int total = 0;
+        for (ServerLevel level : server.getAllLevels()) {
+            pendingLevels.add(level);
+            total += EntityCache.forLevel(level).size();
+        }
+        this.totalEntities = total;
+    }
+
+    /**
+     * 推进任务，直到本tick预算耗尽或任务完成
+     * @return 任务是否已完成
+     */
+    public boolean tick() {
+        if (result != null) {
+            return true;
+        }
+
+        long start = System.nanoTime();
+        long deadline = start + Config.TECHNICAL.cleanupTickBudgetMicros.get() * 1_000L;
+        int entityCap = sweepMode ? Config.TECHNICAL.sweepEntitiesPerTick.get() : Integer.MAX_VALUE;
+        int processed = 0;
+
+        outer:
+        while (true) {
+            if (currentEntities == null && !nextDimension()) {
+                finish();
+                break;
+            }
+
+            while (index < currentEntities.length) {
+                if (processed >= entityCap) break outer;
+                if (processed > 0 && processed % TIME_CHECK_INTERVAL == 0 && System.nanoTime() >= deadline) {
+                    break outer;
+                }
+                processEntity(currentEntities[index++]);
+                processed++;
+            }
+            finishDimension();
+        }
+        // 维度未处理完时也在本tick放入，物品实体不跨tick滞留
+        if (currentCache != null) {
+            storePendingItems();
+        }
+
+        processedEntities += processed;
+        workNanos += System.nanoTime() - start;
+        ticksUsed++;
+
+        if (result != null) {
+            if (sweepMode) {
+                CleanupMetrics.record("sweep", totalItemsCleaned + totalProjectilesCleaned, ticksUsed, workNanos);
+            } else {
+                GlobalDeleteSignal.activate(server, totalItemsCleaned + totalProjectilesCleaned, workNanos);
+            }
+        }
+        return result != null;
+    }
+
+    /**
+     * 任务结果，未完成时为null
+     */
+    public CleanupResult getResult() {
+        return result;
+    }
+
+    /**
+     * 完成百分比
+     */
+    public int getProgressPercent() {
+        if (totalEntities <= 0) return result != null ? 100 : 0;
+        return Math.min(100, processedEntities * 100 / totalEntities);
+    }
+
+    public int getTicksUsed() {
+        return ticksUsed;
+    }
+
+    // === 内部方法 ===
+
+    /**
+     * 切换到下一个维度并对其缓存做快照
+     */
+    private boolean nextDimension() {
+        ServerLevel level = pendingLevels.poll();
+        if (level == null) {
+            return false;
+        }
+
+        currentCache = EntityCache.forLevel(level);
+        currentEntities = currentCache.snapshotEntities();
+        index = 0;
+        itemCount = 0;
+        projectileCount = 0;
+        return true;
+    }
+
+    private void processEntity(Entity entity) {
+        try {
+            // 失效实体直接移出缓存
+            if (entity.isRemoved() || !entity.isAlive()) {
+                currentCache.remove(entity.getId());
+                return;
+            }
+            // 快照后被取消上报的实体跳过
+            if (!EntityCache.isEntityReported(entity)) {
+                return;
+            }
+
+            if (entity instanceof ItemEntity itemEntity) {
+                // 上报后过滤结果可能已变化（配置修改、Create开始处理），清理前重新确认
+                if (!EntityFilter.shouldCleanItem(itemEntity)) {
+                    currentCache.remove(entity.getId());
+                    return;
+                }
+                if (sweepMode) {
+                    // 物品攒到本片结束时批量放入垃圾箱，放入成功的才计入清理数量
+                    currentCache.remove(entity.getId());
+                    pendingItems.add(itemEntity);
+                } else {
+                    itemCount++;
+                }
+                return;
+            }
+
+            if (!EntityFilter.shouldCleanProjectile(entity)) {
+                return;
+            }
+
+            if (sweepMode) {
+                currentCache.remove(entity.getId());
+                entity.discard();
+            }
+            projectileCount++;
+        } catch (Exception e) {
+            // 单个实体出错就跳过
+        }
+    }
+
+    /**
+     * 把本片收集的物品批量放入当前维度的垃圾箱
+     */
+    private void storePendingItems() {
+        if (pendingItems.isEmpty()) {
+            return;
+        }
+        itemCount += CleanupService.storeItemEntities(currentCache, pendingItems);
+        pendingItems.clear();
+    }
+
+    private void finishDimension() {
+        storePendingItems();
+        // signal模式的物品在任务结束后才自删除，此时溢出数量只对sweep模式有效
+        int overflow = TrashBoxManager.getOverflowCount(currentCache.getDimension());
+        if (itemCount > 0 || projectileCount > 0 || overflow > 0) {
+            dimensionStats.put(currentCache.getDimension(),
+                new DimensionCleanupStats(itemCount, projectileCount, overflow, overflow > 0 ? "OVERFLOW" : "OK"));
+            totalItemsCleaned += itemCount;
+            totalProjectilesCleaned += projectileCount;
+        }
+        currentCache = null;
+        currentEntities = null;
+    }
+
+    private void finish() {
+        result = new CleanupResult(totalItemsCleaned, totalProjectilesCleaned,
+            dimensionStats, "Cleanup completed successfully");
+        Recyclingservice.LOGGER.debug("Cleanup job finished in {} ticks", ticksUsed + 1);
+    }
+}
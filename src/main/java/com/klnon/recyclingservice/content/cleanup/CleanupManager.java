@@ -1,14 +1,15 @@
 package com.klnon.recyclingservice.content.cleanup;
 
 import com.klnon.recyclingservice.content.cleanup.entity.EntityFilter;
-import com.klnon.recyclingservice.content.cleanup.entity.EntityMerger;
 import com.klnon.recyclingservice.content.cleanup.entity.EntityCache;
+import com.klnon.recyclingservice.content.cleanup.entity.DimensionEntityCache;
 import com.klnon.recyclingservice.content.cleanup.CleanupService.CleanupResult;
+import it.unimi.dsi.fastutil.longs.Long2IntMap;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.world.entity.Entity;
 import net.minecraft.world.entity.item.ItemEntity;
-import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.level.ChunkPos;
 
 import java.util.*;
@@ -22,19 +23,21 @@ public class CleanupManager {
     // === 公共API：实体上报管理（供Mixin使用） ===
     
     /**
-     * 上报实体到清理缓存
-     * @param entity 要上报的实体
+     * 获取维度实体缓存句柄（挂载在ServerLevel上，免去维度与UUID哈希）
+     * @param level 实体所在维度
+     * @return 维度实体缓存
      */
-    public static void reportEntity(ResourceLocation dimension, UUID uuid, Entity entity) {
-        EntityCache.addEntity(dimension, uuid, entity);
+    public static DimensionEntityCache getEntityCache(ServerLevel level) {
+        return EntityCache.forLevel(level);
     }
     
     /**
-     * 从清理缓存中移除实体
-     * @param entity 要移除的实体
+     * 刷入本tick缓冲的上报/取消上报操作，并批量处理本tick自删除的物品与弹射物
+     * @param server 服务器实例
      */
-    public static void removeReportedEntity(ResourceLocation dimension, Entity entity) {
-        EntityCache.removeEntity(dimension,entity.getUUID());
+    public static void flushReports(MinecraftServer server) {
+        EntityCache.flushPending(server);
+        CleanupService.flushPendingTrash(server);
     }
     
     /**
@@ -73,13 +76,6 @@ public class CleanupManager {
         return EntityFilter.shouldCleanItem(itemEntity);
     }
 
-    /**
-     * 执行自动清理
-     */
-    public static String generateComplexItemKey(ItemStack stack) {
-        return EntityMerger.generateComplexItemKey(stack);
-    }
-
     /**
      * 清理无效实体
      */
@@ -94,7 +90,7 @@ public class CleanupManager {
         return EntityCache.getReportedEntries(dimension);
     }
 
-    public static Map<ChunkPos, Integer> getEntityCountByChunk(ResourceLocation dimension) {
+    public static Long2IntMap getEntityCountByChunk(ResourceLocation dimension) {
         return EntityCache.getEntityCountByChunk(dimension);
     }
 
@@ -105,9 +101,38 @@ public class CleanupManager {
     // === 核心清理功能 ===
     
     /**
-     * 执行自动清理
+     * 开始一次清理任务（分多个tick执行）
+     */
+    public static void startCleanup(MinecraftServer server) {
+        CleanupService.startCleanup(server);
+    }
+    
+    /**
+     * 推进清理任务（每tick调用）
+     * @return 完成时返回清理结果，否则返回null
+     */
+    public static CleanupResult tickCleanup() {
+        return CleanupService.tickCleanup();
+    }
+    
+    /**
+     * 是否有清理任务正在执行
+     */
+    public static boolean isCleanupRunning() {
+        return CleanupService.isCleanupRunning();
+    }
+    
+    /**
+     * 当前清理任务的完成百分比
+     */
+    public static int getCleanupProgress() {
+        return CleanupService.getCleanupProgress();
+    }
+    
+    /**
+     * 当前清理任务已持续的tick数
      */
-    public static CleanupResult performAutoCleanup(MinecraftServer server) {
-        return CleanupService.performAutoCleanup(server);
+    public static int getCleanupTicks() {
+        return CleanupService.getCleanupTicks();
     }
 }
\ No newline at end of file
@@ -0,0 +1,37 @@
+package com.klnon.recyclingservice.content.cleanup;
+
+import com.klnon.recyclingservice.Recyclingservice;
+
+/**
+ * 清理耗时统计 - 记录最近一次清理的执行指标
+ * signal与sweep两种模式使用同一格式，便于对比
+ */
+public class CleanupMetrics {
+
+    private static volatile Snapshot last = null;
+
+    /**
+     * 记录一次完成的清理
+     * @param mode 清理模式
+     * @param entities 处理的实体数量
+     * @param ticks 跨越的tick数
+     * @param workNanos 服务端线程上的耗时（纳秒）
+     */
+    public static void record(String mode, int entities, int ticks, long workNanos) {
+        last = new Snapshot(mode, entities, ticks, workNanos);
+        Recyclingservice.LOGGER.info("Cleanup [{}]: {} entities over {} ticks, {} ms server thread time",
+            mode, entities, ticks, String.format("%.2f", workNanos / 1_000_000.0));
+    }
+
+    /**
+     * 获取最近一次清理的指标，未清理过返回null
+     */
+    public static Snapshot getLast() {
+        return last;
+    }
+
+    /**
+     * 清理指标快照
+     */
+    public record Snapshot(String mode, int entities, int ticks, long workNanos) {}
+}
@@ -1,14 +1,17 @@
 package com.klnon.recyclingservice.content.cleanup;
 
+import com.klnon.recyclingservice.Config;
 import com.klnon.recyclingservice.Recyclingservice;
-import com.klnon.recyclingservice.content.cleanup.entity.EntityFilter;
+import com.klnon.recyclingservice.content.cleanup.entity.DimensionEntityCache;
 import com.klnon.recyclingservice.content.cleanup.entity.EntityCache;
+import com.klnon.recyclingservice.content.cleanup.entity.ItemKey;
 import com.klnon.recyclingservice.content.trashbox.TrashBoxManager;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.MinecraftServer;
-import net.minecraft.world.entity.Entity;
-import net.minecraft.world.entity.item.ItemEntity;
 import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.entity.item.ItemEntity;
+import net.minecraft.world.item.ItemStack;
 
 import javax.annotation.Nonnull;
 import java.util.*;
@@ -18,61 +21,128 @@ import java.util.*;
  */
 public class CleanupService {
     
+    // 当前正在执行的清理任务
+    private static CleanupJob activeJob = null;
+    
     /**
-     * 执行自动清理
+     * 开始一次清理任务
+     * 任务在后续tick中按时间预算分片推进，见CleanupJob
+     * signal模式：任务完成后激活全局删除信号，由实体自行删除
+     * sweep模式：任务在服务端线程直接移除上报实体
      */
-    public static CleanupResult performAutoCleanup(MinecraftServer server) {
+    public static void startCleanup(MinecraftServer server) {
+        // 手动清理可能发生在tick中途，先刷入缓冲的上报
+        CleanupManager.flushReports(server);
         TrashBoxManager.clearAll();
-        GlobalDeleteSignal.activate(server);
-        
-        Map<ResourceLocation, DimensionCleanupStats> dimensionStats = new HashMap<>();
-        int totalItemsCleaned = 0;
-        int totalProjectilesCleaned = 0;
+        activeJob = new CleanupJob(server);
+    }
+    
+    /**
+     * 推进当前清理任务
+     * @return 任务完成时返回结果，未完成或无任务返回null
+     */
+    public static CleanupResult tickCleanup() {
+        if (activeJob == null) {
+            return null;
+        }
         
+        try {
+            if (!activeJob.tick()) {
+                return null;
+            }
+            CleanupResult result = activeJob.getResult();
+            activeJob = null;
+            return result;
+        } catch (Exception e) {
+            activeJob = null;
+            Recyclingservice.LOGGER.debug("Cleanup job failed: {}", e.getMessage());
+            throw e;
+        }
+    }
+    
+    /**
+     * 是否有清理任务正在执行
+     */
+    public static boolean isCleanupRunning() {
+        return activeJob != null;
+    }
+    
+    /**
+     * 当前任务的完成百分比
+     */
+    public static int getCleanupProgress() {
+        CleanupJob job = activeJob;
+        return job != null ? job.getProgressPercent() : 100;
+    }
+    
+    /**
+     * 当前任务已持续的tick数
+     */
+    public static int getCleanupTicks() {
+        CleanupJob job = activeJob;
+        return job != null ? job.getTicksUsed() : 0;
+    }
+
+    /**
+     * 把各维度本tick自删除的物品批量放入垃圾箱，并移除自删除的弹射物（signal模式，tick结束时调用）
+     */
+    public static void flushPendingTrash(MinecraftServer server) {
         for (ServerLevel level : server.getAllLevels()) {
-            ResourceLocation dimensionId = level.dimension().location();
-            
-            try {
-                // 直接从缓存获取并统计
-                List<EntityCache.EntityReport> reports = CleanupManager.getReportedEntries(dimensionId);
-                int itemCount = 0;
-                int projectileCount = 0;
-                
-                for (EntityCache.EntityReport report : reports) {
-                    try {
-                        Entity entity = report.entity();
-                        if (entity.isRemoved() || !entity.isAlive()) continue;
-                        
-                        if (entity instanceof ItemEntity) {
-                            itemCount++;
-                        } else if (EntityFilter.shouldCleanProjectile(entity)) {
-                            projectileCount++;
-                        }
-                    } catch (Exception e) {
-                        // 单个实体出错就跳过
-                    }
-                }
-                
-                // 清理缓存
-                CleanupManager.removeInvalidEntities(dimensionId);
-                
-                // 记录统计
-                if (itemCount > 0 || projectileCount > 0) {
-                    dimensionStats.put(dimensionId, new DimensionCleanupStats(itemCount, projectileCount, "OK"));
-                    totalItemsCleaned += itemCount;
-                    totalProjectilesCleaned += projectileCount;
-                }
-                
-            } catch (Exception e) {
-                Recyclingservice.LOGGER.debug("Failed to cleanup dimension {}: {}", dimensionId, e.getMessage());
-                dimensionStats.put(dimensionId, new DimensionCleanupStats(0, 0, "Failed"));
+            DimensionEntityCache cache = EntityCache.forLevel(level);
+            cache.discardPending();
+            List<ItemEntity> entities = cache.drainTrash();
+            if (!entities.isEmpty()) {
+                storeItemEntities(cache, entities);
             }
         }
+    }
+    
+    /**
+     * 批量把物品实体放入所在维度的垃圾箱，放入的实体被移除
+     * 垃圾箱放不下的部分留在对应实体上（从后往前分配），等下一轮清理前再检查
+     * 调用前实体应已取消上报
+     * @return 完整放入并移除的实体数量
+     */
+    public static int storeItemEntities(DimensionEntityCache cache, List<ItemEntity> entities) {
+        // 放入前读取当前物品：实体在等待期间可能被拾取或合并
+        List<ItemStack> stacks = new ArrayList<>(entities.size());
+        for (ItemEntity entity : entities) {
+            if (!entity.isRemoved()) {
+                stacks.add(entity.getItem());
+            }
+        }
+        List<ItemStack> leftovers = TrashBoxManager.addAll(cache.getDimension(), stacks);
+        
+        Object2IntOpenHashMap<ItemKey> leftoverCounts = new Object2IntOpenHashMap<>();
+        for (ItemStack leftover : leftovers) {
+            leftoverCounts.addTo(ItemKey.of(leftover), leftover.getCount());
+        }
         
-        return new CleanupResult(totalItemsCleaned, totalProjectilesCleaned, 
-            dimensionStats, "Cleanup completed successfully");
+        int stored = 0;
+        for (int i = entities.size() - 1; i >= 0; i--) {
+            ItemEntity entity = entities.get(i);
+            if (entity.isRemoved()) continue;
+            
+            ItemStack stack = entity.getItem();
+            ItemKey key = leftoverCounts.isEmpty() ? null : ItemKey.of(stack);
+            int remaining = key == null ? 0 : leftoverCounts.getInt(key);
+            if (remaining <= 0) {
+                entity.discard();
+                stored++;
+                continue;
+            }
+            
+            // 垃圾箱全满：剩余部分留在地上
+            int keep = Math.min(remaining, stack.getCount());
+            leftoverCounts.put(key, remaining - keep);
+            if (keep < stack.getCount()) {
+                entity.setItem(stack.copyWithCount(keep));
+            }
+            cache.getScheduler().schedule(entity, Config.getCleanIntervalTicks() / 2);
+        }
+        return stored;
     }
-
+    
     /**
      * 清理结果
      */
@@ -82,13 +152,14 @@ public class CleanupService {
 
     /**
      * 维度清理统计
+     * itemsOverflowed为垃圾箱全满而留在地上的物品数量
      */
-    public record DimensionCleanupStats(int itemsCleaned, int projectilesCleaned, String status) {
+    public record DimensionCleanupStats(int itemsCleaned, int projectilesCleaned, int itemsOverflowed, String status) {
 
         @Override
         public @Nonnull String toString() {
-            return String.format("DimensionStats{items=%d, projectiles=%d, status='%s'}",
-                    itemsCleaned, projectilesCleaned, status);
+            return String.format("DimensionStats{items=%d, projectiles=%d, overflowed=%d, status='%s'}",
+                    itemsCleaned, projectilesCleaned, itemsOverflowed, status);
         }
     }
 }
\ No newline at end of file
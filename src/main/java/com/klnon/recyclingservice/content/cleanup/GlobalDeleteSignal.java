@@ -1,6 +1,8 @@
 package com.klnon.recyclingservice.content.cleanup;
 
+import com.klnon.recyclingservice.Recyclingservice;
 import com.klnon.recyclingservice.content.cleanup.entity.EntityCache;
+import com.klnon.recyclingservice.content.trashbox.TrashBoxManager;
 import net.minecraft.server.MinecraftServer;
 
 /**
@@ -11,32 +13,61 @@ public class GlobalDeleteSignal {
     private static volatile boolean deleteSignalActive = false;
     private static volatile long signalStartTick = 0;
     
+    // 每tick只计算一次判定结果，同tick内的实体直接复用
+    private static volatile int lastCheckedTick = -1;
+    private static volatile boolean lastVerdict = false;
+    
+    // 本次信号的统计，信号关闭时记录到CleanupMetrics
+    private static int signalEntities = 0;
+    private static long signalPrepareNanos = 0;
+    
     /**
      * 激活删除信号
+     * @param entities 本次预计删除的实体数量
+     * @param prepareNanos 统计阶段耗时
      */
-    public static void activate(MinecraftServer server) {
+    public static void activate(MinecraftServer server, int entities, long prepareNanos) {
         deleteSignalActive = true;
         signalStartTick = server.getTickCount();
+        lastCheckedTick = -1;
+        signalEntities = entities;
+        signalPrepareNanos = prepareNanos;
     }
     
     /**
      * 检查是否应该删除
-     * 双重条件：缓存清空 OR 5秒超时
+     * 双重条件：缓存清空 OR 10秒超时
+     * 判定结果按tick缓存，开销不再随实体数量增长
      */
     public static boolean shouldDelete(MinecraftServer server) {
         if (!deleteSignalActive) {
             return false;
         }
         
+        int currentTick = server.getTickCount();
+        if (currentTick == lastCheckedTick) {
+            return lastVerdict;
+        }
+        lastCheckedTick = currentTick;
+        lastVerdict = evaluate(server);
+        return lastVerdict;
+    }
+    
+    private static boolean evaluate(MinecraftServer server) {
         // 检查关闭条件
-        boolean timeOut = (server.getTickCount() - signalStartTick) > 200; // 10秒=200tick
+        long elapsedTicks = server.getTickCount() - signalStartTick;
+        boolean timeOut = elapsedTicks > 200; // 10秒=200tick
         boolean cacheEmpty = EntityCache.getTotalReportedCount() == 0;
         
         if (timeOut || cacheEmpty) {
             deleteSignalActive = false;
+            CleanupMetrics.record("signal", signalEntities, (int) elapsedTicks, signalPrepareNanos);
+            // signal模式的溢出发生在实体自删除时，信号结束后统一记录
+            TrashBoxManager.getOverflowCounts().forEach((dimension, count) ->
+                Recyclingservice.LOGGER.warn("Trash boxes in {} are full, {} items were left on the ground", dimension, count));
             return false;
         }
         
         return true;
     }
-}
\ No newline at end of file
+}
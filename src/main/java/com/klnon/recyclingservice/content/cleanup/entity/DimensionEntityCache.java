@@ -0,0 +1,422 @@
+package com.klnon.recyclingservice.content.cleanup.entity;
+
+import it.unimi.dsi.fastutil.booleans.BooleanArrayList;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2IntMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.entity.item.ItemEntity;
+import net.minecraft.world.level.ChunkPos;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单维度实体缓存 - 以实体int ID为键
+ * 区块计数在增删时增量维护，超载区块查询只与超载区块数量相关
+ * 上报状态同步写回实体字段（ReportableEntity），热路径无需查询本缓存
+ * tick内的上报/取消上报先写入单写者缓冲区，在ServerTickEvent.Post统一刷入
+ * 异步实体tick模组可能在其他线程调用实体Mixin，这些线程的操作写入无锁队列，由服务端线程刷入时取出
+ * 每个操作入队时取一个序号，刷入时两路按序号归并；实体上记录最后生效的序号，
+ * 生产者在取序号与入队之间被抢占、晚于更新操作才到达的旧操作直接丢弃，不会覆盖更新的结果
+ * 上报资格由本维度的ReportScheduler按存活时间调度检查
+ */
+public class DimensionEntityCache {
+
+    private final ResourceLocation dimension;
+    // 所有维度共享的上报总数计数器
+    private final LongAdder totalCounter;
+
+    // 实体ID -> 实体记录
+    private final Int2ObjectOpenHashMap<EntityRecord> records = new Int2ObjectOpenHashMap<>();
+    // 区块坐标(long) -> 已上报实体数量
+    private final Long2IntOpenHashMap chunkCounts = new Long2IntOpenHashMap();
+    // 达到阈值的区块集合，阈值变化时重建
+    private final LongOpenHashSet overloadedChunks = new LongOpenHashSet();
+    private int overloadThreshold = -1;
+
+    // 上报资格检查调度
+    private final ReportScheduler scheduler = new ReportScheduler(this);
+
+    // 操作序号，服务端线程与其他线程共用；从1开始，实体字段为0表示还没有操作生效
+    private final AtomicLong sequence = new AtomicLong(1);
+    // 本tick待刷入的操作（服务端线程单写者）：实体 + 是否为上报 + 序号（递增）
+    private final ArrayList<Entity> pendingEntities = new ArrayList<>();
+    private final BooleanArrayList pendingReports = new BooleanArrayList();
+    private final LongArrayList pendingSequences = new LongArrayList();
+    // 其他线程产生的操作（多生产者、服务端线程单消费者），刷入时按序号与上面的缓冲归并
+    private final ConcurrentLinkedQueue<PendingOp> offThreadOps = new ConcurrentLinkedQueue<>();
+    // 本tick自删除、待批量放入垃圾箱的物品实体（可能来自任意实体tick线程）
+    private final ConcurrentLinkedQueue<ItemEntity> pendingTrash = new ConcurrentLinkedQueue<>();
+    // 本tick自删除的弹射物，tick结束时统一移除，不在子类tick途中移除
+    private final ConcurrentLinkedQueue<Entity> pendingDiscards = new ConcurrentLinkedQueue<>();
+
+    // 上报变动统计：最近一次刷入 / 累计
+    private int lastFlushReported = 0;
+    private int lastFlushRemoved = 0;
+    private long totalReported = 0;
+    private long totalRemoved = 0;
+
+    public DimensionEntityCache(ResourceLocation dimension, LongAdder totalCounter) {
+        this.dimension = dimension;
+        this.totalCounter = totalCounter;
+    }
+
+    // === tick内缓冲 ===
+
+    /**
+     * 缓冲一次上报，实体字段立即更新，缓存在tick结束时写入
+     */
+    public void queueReport(Entity entity) {
+        // 先写字段再入队：刷入取到该操作时字段写入已完成，刷入对字段的修正不会被覆盖
+        if (entity instanceof ReportableEntity reportable) {
+            reportable.recyclingservice$setReported(true, entity.level().getGameTime());
+        }
+        enqueue(entity, true);
+    }
+
+    /**
+     * 缓冲一次取消上报，实体字段立即更新，缓存在tick结束时写入
+     */
+    public void queueRemove(Entity entity) {
+        if (entity instanceof ReportableEntity reportable) {
+            reportable.recyclingservice$setReported(false, 0L);
+        }
+        enqueue(entity, false);
+    }
+
+    /**
+     * 缓冲一个待放入垃圾箱的物品实体，在tick结束时批量放入后再移除
+     * 可在任意线程调用，垃圾箱本身只由服务端线程修改
+     */
+    public void queueTrash(ItemEntity entity) {
+        pendingTrash.offer(entity);
+    }
+
+    /**
+     * 取出本tick缓冲的待放入垃圾箱物品实体（服务端线程）
+     */
+    public List<ItemEntity> drainTrash() {
+        ItemEntity entity = pendingTrash.poll();
+        if (entity == null) {
+            return List.of();
+        }
+        List<ItemEntity> drained = new ArrayList<>();
+        do {
+            drained.add(entity);
+        } while ((entity = pendingTrash.poll()) != null);
+        return drained;
+    }
+
+    /**
+     * 缓冲一个待移除的弹射物，在tick结束时移除
+     * 子类tick先调用super.tick，Projectile.tick尾部之后子类逻辑仍会执行，在那里移除会让子类继续处理已移除的实体
+     * 可在任意线程调用
+     */
+    public void queueDiscard(Entity entity) {
+        pendingDiscards.offer(entity);
+    }
+
+    /**
+     * 移除本tick缓冲的弹射物（服务端线程）
+     */
+    public void discardPending() {
+        Entity entity;
+        while ((entity = pendingDiscards.poll()) != null) {
+            if (!entity.isRemoved()) {
+                entity.discard();
+            }
+        }
+    }
+
+    /**
+     * 按入队顺序把缓冲的操作批量写入缓存
+     * 其他线程的操作按序号排序后与服务端线程的缓冲归并（后者本身已按序号递增）
+     * 序号早于实体上一次生效操作的迟到操作被丢弃，并按缓存内容恢复实体的上报字段
+     */
+    public synchronized void flush() {
+        List<PendingOp> offThread = drainOffThreadOps();
+
+        int reported = 0;
+        int removed = 0;
+
+        int i = 0;
+        int j = 0;
+        while (i < pendingEntities.size() || j < offThread.size()) {
+            Entity entity;
+            boolean report;
+            long seq;
+            if (j >= offThread.size()
+                    || (i < pendingEntities.size() && pendingSequences.getLong(i) < offThread.get(j).sequence())) {
+                entity = pendingEntities.get(i);
+                report = pendingReports.getBoolean(i);
+                seq = pendingSequences.getLong(i);
+                i++;
+            } else {
+                PendingOp op = offThread.get(j++);
+                entity = op.entity();
+                report = op.report();
+                seq = op.sequence();
+            }
+
+            ReportableEntity reportable = entity instanceof ReportableEntity r ? r : null;
+            if (reportable != null) {
+                if (seq < reportable.recyclingservice$getAppliedSequence()) {
+                    restoreReportedField(entity, reportable);
+                    continue;
+                }
+                reportable.recyclingservice$setAppliedSequence(seq);
+            }
+
+            if (report) {
+                if (!entity.isRemoved() && add(entity)) {
+                    reported++;
+                }
+            } else if (remove(entity.getId())) {
+                removed++;
+            }
+            // 不同线程入队前写字段的先后可能与序号相反，刷入后以缓存为准
+            if (reportable != null) {
+                restoreReportedField(entity, reportable);
+            }
+        }
+        pendingEntities.clear();
+        pendingReports.clear();
+        pendingSequences.clear();
+
+        lastFlushReported = reported;
+        lastFlushRemoved = removed;
+        totalReported += reported;
+        totalRemoved += removed;
+    }
+
+    /**
+     * 最近一次刷入的上报数量
+     */
+    public int getLastFlushReported() {
+        return lastFlushReported;
+    }
+
+    /**
+     * 最近一次刷入的取消上报数量
+     */
+    public int getLastFlushRemoved() {
+        return lastFlushRemoved;
+    }
+
+    public long getTotalReported() {
+        return totalReported;
+    }
+
+    public long getTotalRemoved() {
+        return totalRemoved;
+    }
+
+    // === 缓存读写 ===
+
+    /**
+     * 添加实体，已存在则忽略
+     * @return 是否新增
+     */
+    public synchronized boolean add(Entity entity) {
+        int id = entity.getId();
+        if (records.containsKey(id)) {
+            return false;
+        }
+
+        long chunkPos = entity.chunkPosition().toLong();
+        records.put(id, new EntityRecord(entity, chunkPos));
+        totalCounter.increment();
+        if (entity instanceof ReportableEntity reportable) {
+            reportable.recyclingservice$setReported(true, entity.level().getGameTime());
+        }
+
+        int count = chunkCounts.addTo(chunkPos, 1) + 1;
+        if (overloadThreshold > 0 && count >= overloadThreshold) {
+            overloadedChunks.add(chunkPos);
+        }
+        return true;
+    }
+
+    /**
+     * 按实体ID移除
+     * @return 是否移除成功
+     */
+    public synchronized boolean remove(int entityId) {
+        EntityRecord record = records.remove(entityId);
+        if (record == null) {
+            return false;
+        }
+        if (record.entity() instanceof ReportableEntity reportable) {
+            reportable.recyclingservice$setReported(false, 0L);
+        }
+        totalCounter.decrement();
+        decrementChunk(record.chunkPos());
+        return true;
+    }
+
+    public synchronized boolean contains(int entityId) {
+        return records.containsKey(entityId);
+    }
+
+    public synchronized int size() {
+        return records.size();
+    }
+
+    /**
+     * 清理已移除或死亡的实体
+     */
+    public synchronized void removeInvalid() {
+        ObjectIterator<EntityRecord> iterator = records.values().iterator();
+        while (iterator.hasNext()) {
+            EntityRecord record = iterator.next();
+            Entity entity = record.entity();
+            if (entity == null || entity.isRemoved() || !entity.isAlive()) {
+                iterator.remove();
+                totalCounter.decrement();
+                decrementChunk(record.chunkPos());
+            }
+        }
+    }
+
+    /**
+     * 获取实体快照，供分片清理任务遍历
+     */
+    public synchronized Entity[] snapshotEntities() {
+        Entity[] snapshot = new Entity[records.size()];
+        int i = 0;
+        for (EntityRecord record : records.values()) {
+            snapshot[i++] = record.entity();
+        }
+        return snapshot;
+    }
+
+    /**
+     * 获取所有实体报告（快照）
+     */
+    public synchronized List<EntityCache.EntityReport> getReports() {
+        List<EntityCache.EntityReport> reports = new ArrayList<>(records.size());
+        for (EntityRecord record : records.values()) {
+            reports.add(new EntityCache.EntityReport(record.entity(), new ChunkPos(record.chunkPos()), dimension));
+        }
+        return reports;
+    }
+
+    /**
+     * 获取区块计数快照
+     */
+    public synchronized Long2IntMap getChunkCounts() {
+        return new Long2IntOpenHashMap(chunkCounts);
+    }
+
+    /**
+     * 获取超载区块，仅在阈值变化时重建集合
+     */
+    public synchronized List<ChunkPos> getOverloadedChunks(int threshold) {
+        if (threshold != overloadThreshold) {
+            rebuildOverloaded(threshold);
+        }
+
+        List<ChunkPos> result = new ArrayList<>(overloadedChunks.size());
+        LongIterator iterator = overloadedChunks.iterator();
+        while (iterator.hasNext()) {
+            result.add(new ChunkPos(iterator.nextLong()));
+        }
+        return result;
+    }
+
+    public ResourceLocation getDimension() {
+        return dimension;
+    }
+
+    public ReportScheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * 当前是否在实体所属服务器的主线程
+     */
+    public static boolean isOwnerThread(Entity entity) {
+        MinecraftServer server = entity.getServer();
+        return server == null || server.isSameThread();
+    }
+
+    // === 内部方法 ===
+
+    private void enqueue(Entity entity, boolean report) {
+        long seq = sequence.getAndIncrement();
+        if (isOwnerThread(entity)) {
+            pendingEntities.add(entity);
+            pendingReports.add(report);
+            pendingSequences.add(seq);
+        } else {
+            offThreadOps.offer(new PendingOp(entity, report, seq));
+        }
+    }
+
+    /**
+     * 使实体的上报字段与缓存一致（入队时已提前改写了字段，可能被迟到或交错的写入覆盖）
+     */
+    private void restoreReportedField(Entity entity, ReportableEntity reportable) {
+        boolean cached = records.containsKey(entity.getId());
+        if (cached != reportable.recyclingservice$isReported()) {
+            reportable.recyclingservice$setReported(cached, cached ? entity.level().getGameTime() : 0L);
+        }
+    }
+
+    /**
+     * 取出其他线程的操作并按序号排序（不同生产者取序号与入队之间可能交错）
+     */
+    private List<PendingOp> drainOffThreadOps() {
+        PendingOp op = offThreadOps.poll();
+        if (op == null) {
+            return List.of();
+        }
+        List<PendingOp> drained = new ArrayList<>();
+        do {
+            drained.add(op);
+        } while ((op = offThreadOps.poll()) != null);
+        drained.sort(Comparator.comparingLong(PendingOp::sequence));
+        return drained;
+    }
+
+    private void decrementChunk(long chunkPos) {
+        int count = chunkCounts.addTo(chunkPos, -1) - 1;
+        if (count <= 0) {
+            chunkCounts.remove(chunkPos);
+        }
+        if (count < overloadThreshold) {
+            overloadedChunks.remove(chunkPos);
+        }
+    }
+
+    private void rebuildOverloaded(int threshold) {
+        overloadThreshold = threshold;
+        overloadedChunks.clear();
+        for (Long2IntMap.Entry entry : chunkCounts.long2IntEntrySet()) {
+            if (entry.getIntValue() >= threshold) {
+                overloadedChunks.add(entry.getLongKey());
+            }
+        }
+    }
+
+    /**
+     * 实体存储记录
+     */
+    private record EntityRecord(Entity entity, long chunkPos) {}
+
+    /**
+     * 其他线程产生的上报（report=true）或取消上报操作
+     */
+    private record PendingOp(Entity entity, boolean report, long sequence) {}
+}
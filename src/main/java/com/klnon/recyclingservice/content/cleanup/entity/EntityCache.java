@@ -1,141 +1,134 @@
 package com.klnon.recyclingservice.content.cleanup.entity;
 
 import com.klnon.recyclingservice.Config;
+import it.unimi.dsi.fastutil.longs.Long2IntMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
 import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.world.entity.Entity;
 import net.minecraft.world.level.ChunkPos;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
- * 主动上报缓存系统 - UUID统一操作的简化版本
- * 核心理念：所有操作都基于UUID，提供Entity便捷方法
+ * 主动上报缓存系统 - 按维度分片的实体ID缓存
+ * 核心理念：实体以int ID为键，区块计数随增删增量维护
  */
 public class EntityCache {
-    
-    // 统一主存储：维度 -> UUID -> 实体记录
-    private static final ConcurrentHashMap<ResourceLocation, ConcurrentHashMap<UUID, EntityRecord>> entities 
+
+    // 统一主存储：维度 -> 维度实体缓存
+    private static final ConcurrentHashMap<ResourceLocation, DimensionEntityCache> entities
         = new ConcurrentHashMap<>();
-    
+
+    // 全局上报总数，由各维度缓存在增删时更新，读取为O(1)
+    private static final LongAdder totalReported = new LongAdder();
+
     // === 核心存储方法 ===
-    
+
+    /**
+     * 获取或创建维度缓存
+     */
+    public static DimensionEntityCache getOrCreate(ResourceLocation dimension) {
+        return entities.computeIfAbsent(dimension, dim -> new DimensionEntityCache(dim, totalReported));
+    }
+
+    /**
+     * 通过ServerLevel上挂载的句柄获取维度缓存（热路径使用）
+     */
+    public static DimensionEntityCache forLevel(ServerLevel level) {
+        return ((LevelEntityCacheHolder) level).recyclingservice$getEntityCache();
+    }
+
+    /**
+     * 推进各维度的上报检查时间轮，再把本tick缓冲的上报操作刷入缓存（ServerTickEvent.Post调用）
+     */
+    public static void flushPending(MinecraftServer server) {
+        for (ServerLevel level : server.getAllLevels()) {
+            DimensionEntityCache cache = forLevel(level);
+            cache.getScheduler().advance(level.getGameTime());
+            cache.flush();
+        }
+    }
+
     /**
      * 添加实体到缓存
      */
-    public static void addEntity(ResourceLocation dimension, UUID uuid, Entity entity) {
-        ConcurrentHashMap<UUID, EntityRecord> dimensionEntities = 
-            entities.computeIfAbsent(dimension, k -> new ConcurrentHashMap<>());
-        
-        EntityRecord record = new EntityRecord(entity, new ChunkPos(entity.blockPosition()), System.currentTimeMillis());
-        dimensionEntities.putIfAbsent(uuid, record);
+    public static void addEntity(ResourceLocation dimension, Entity entity) {
+        getOrCreate(dimension).add(entity);
     }
-    
+
     /**
      * 从缓存中移除实体
      */
-    public static void removeEntity(ResourceLocation dimension, UUID uuid) {
-        ConcurrentHashMap<UUID, EntityRecord> dimensionEntities = entities.get(dimension);
+    public static void removeEntity(ResourceLocation dimension, int entityId) {
+        DimensionEntityCache dimensionEntities = entities.get(dimension);
         if (dimensionEntities != null) {
-            dimensionEntities.remove(uuid);
+            dimensionEntities.remove(entityId);
         }
     }
-    
+
     // === 公共API方法 ===
 
     /**
-     * 检查实体是否已上报
+     * 检查实体是否已上报（可上报实体直接读取自身字段）
      */
     public static boolean isEntityReported(Entity entity) {
-        ResourceLocation dimension = entity.level().dimension().location();
-        ConcurrentHashMap<UUID, EntityRecord> dimensionEntities = entities.get(dimension);
-        return dimensionEntities != null && dimensionEntities.containsKey(entity.getUUID());
+        if (entity instanceof ReportableEntity reportable) {
+            return reportable.recyclingservice$isReported();
+        }
+        return entity.level() instanceof ServerLevel level && forLevel(level).contains(entity.getId());
     }
-    
+
     /**
      * 清理无效实体
      */
     public static void removeInvalidEntities(ResourceLocation dimension) {
-        ConcurrentHashMap<UUID, EntityRecord> dimensionEntities = entities.get(dimension);
-        if (dimensionEntities == null) return;
-
-        Iterator<Map.Entry<UUID, EntityRecord>> iterator = dimensionEntities.entrySet().iterator();
-        
-        while (iterator.hasNext()) {
-            Map.Entry<UUID, EntityRecord> entry = iterator.next();
-            EntityRecord record = entry.getValue();
-            
-            try {
-                Entity entity = record.entity();
-                if (entity == null || entity.isRemoved() || !entity.isAlive()) {
-                    iterator.remove();
-                }
-            } catch (Exception e) {
-                iterator.remove();
-            }
+        DimensionEntityCache dimensionEntities = entities.get(dimension);
+        if (dimensionEntities != null) {
+            dimensionEntities.removeInvalid();
         }
-
     }
-    
+
     /**
      * 获取维度的所有实体报告
      */
     public static List<EntityReport> getReportedEntries(ResourceLocation dimension) {
-        ConcurrentHashMap<UUID, EntityRecord> dimensionEntities = entities.get(dimension);
-        if (dimensionEntities == null) return new ArrayList<>();
-        
-        List<EntityReport> reports = new ArrayList<>();
-        for (EntityRecord record : dimensionEntities.values()) {
-            reports.add(new EntityReport(record.entity(), record.chunkPos(), dimension));
-        }
-        return reports;
+        DimensionEntityCache dimensionEntities = entities.get(dimension);
+        return dimensionEntities != null ? dimensionEntities.getReports() : new ArrayList<>();
     }
-    
+
     /**
-     * 获取区块实体数量统计（按需计算）
+     * 获取区块实体数量统计（增量维护的快照，key为ChunkPos.toLong()）
      */
-    public static Map<ChunkPos, Integer> getEntityCountByChunk(ResourceLocation dimension) {
-        ConcurrentHashMap<UUID, EntityRecord> dimensionEntities = entities.get(dimension);
-        if (dimensionEntities == null) return new HashMap<>();
-        
-        Map<ChunkPos, Integer> chunkCounts = new HashMap<>();
-        for (EntityRecord record : dimensionEntities.values()) {
-            chunkCounts.merge(record.chunkPos(), 1, Integer::sum);
-        }
-        return chunkCounts;
+    public static Long2IntMap getEntityCountByChunk(ResourceLocation dimension) {
+        DimensionEntityCache dimensionEntities = entities.get(dimension);
+        return dimensionEntities != null ? dimensionEntities.getChunkCounts() : new Long2IntOpenHashMap();
     }
 
     /**
      * 获取所有维度缓存的实体总数
      */
     public static int getTotalReportedCount() {
-        return entities.values().stream()
-            .mapToInt(Map::size)
-            .sum();
+        return (int) totalReported.sum();
     }
 
     /**
-     * 获取超载区块列表（按需计算）
+     * 获取超载区块列表（只与超载区块数量相关）
      */
     public static List<ChunkPos> getOverloadedChunks(ResourceLocation dimension) {
-        Map<ChunkPos, Integer> chunkCounts = getEntityCountByChunk(dimension);
-        int threshold = Config.TECHNICAL.tooManyItemsWarning.get();
+        DimensionEntityCache dimensionEntities = entities.get(dimension);
+        if (dimensionEntities == null) return new ArrayList<>();
 
-        return chunkCounts.entrySet().stream()
-                .filter(entry -> entry.getValue() >= threshold)
-                .map(Map.Entry::getKey)
-                .toList();
+        return dimensionEntities.getOverloadedChunks(Config.TECHNICAL.tooManyItemsWarning.get());
     }
 
     // === 辅助记录类 ===
-    
-    /**
-     * 实体存储记录
-     */
-    private record EntityRecord(Entity entity, ChunkPos chunkPos, long reportTime) {}
-    
+
     /**
      * 实体上报记录（公共API返回格式）
      */
     public record EntityReport(Entity entity, ChunkPos chunkPos, ResourceLocation dimension) {}
-}
\ No newline at end of file
+}
@@ -2,7 +2,6 @@ package com.klnon.recyclingservice.content.cleanup.entity;
 
 import net.minecraft.world.entity.item.ItemEntity;
 import net.minecraft.world.entity.Entity;
-import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.nbt.CompoundTag;
 import com.klnon.recyclingservice.Config;
 
@@ -26,10 +25,8 @@ public class EntityFilter {
             return false;
         }
         
-        String itemId = BuiltInRegistries.ITEM.getKey(entity.getItem().getItem()).toString();
-        return Config.isWhitelistMode() 
-            ? !Config.whitelistCache.contains(itemId)  // 白名单模式：不在保留列表中的都清理
-            : Config.blacklistCache.contains(itemId);  // 黑名单模式：只清理黑名单中的
+        // 预先构建的决策表，已包含白/黑名单模式
+        return Config.shouldCleanItemType(entity.getItem().getItem());
     }
 
 
@@ -39,8 +36,8 @@ public class EntityFilter {
      * @return 是否应该清理
      */
     public static boolean shouldCleanProjectile(Entity entity) {
-        return Config.GAMEPLAY.cleanProjectiles.get() && 
-               Config.projectileTypesCache.contains(BuiltInRegistries.ENTITY_TYPE.getKey(entity.getType()).toString());
+        // 预先构建的决策表，已包含clean_projectiles开关
+        return Config.shouldCleanProjectileType(entity.getType());
     }
 
     /**
@@ -49,7 +46,7 @@ public class EntityFilter {
      * @param entity 掉落物实体
      * @return 是否正在被Create模组处理
      */
-    private static boolean isBeingProcessedByCreate(ItemEntity entity) {
+    public static boolean isBeingProcessedByCreate(ItemEntity entity) {
         CompoundTag persistentData = entity.getPersistentData();
         
         // 检查是否包含CreateData
@@ -0,0 +1,107 @@
+package com.klnon.recyclingservice.content.cleanup.entity;
+
+import net.minecraft.core.component.DataComponentPatch;
+import net.minecraft.core.component.DataComponentType;
+import net.minecraft.core.component.DataComponents;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * 物品结构键 - 物品类型 + 组件补丁（忽略LORE）
+ * 不可变，哈希在构造时算好，可直接作为索引键；替代原先拼接字符串的复杂物品键
+ * 同一物品类型的原型组件相同，所以只比较补丁即可区分复杂物品（含耐久）
+ */
+public final class ItemKey {
+
+    public static final ItemKey EMPTY = new ItemKey(Items.AIR, DataComponentPatch.EMPTY);
+
+    private final Item item;
+    private final DataComponentPatch patch;
+    private final int hash;
+
+    private ItemKey(Item item, DataComponentPatch patch) {
+        this.item = item;
+        this.patch = patch;
+        this.hash = 31 * System.identityHashCode(item) + patch.hashCode();
+    }
+
+    /**
+     * 生成物品键，只有补丁中带LORE时才会生成去除LORE的新补丁
+     */
+    public static ItemKey of(ItemStack stack) {
+        if (stack.isEmpty()) {
+            return EMPTY;
+        }
+        DataComponentPatch patch = stack.getComponentsPatch();
+        if (patch.get(DataComponents.LORE) != null) {
+            patch = patch.forget(type -> type == DataComponents.LORE);
+        }
+        return new ItemKey(stack.getItem(), patch);
+    }
+
+    /**
+     * 不生成键直接比较两个物品是否为同一种物品（忽略数量与LORE）
+     */
+    public static boolean sameItem(ItemStack a, ItemStack b) {
+        if (a.isEmpty() || b.isEmpty()) {
+            return a.isEmpty() && b.isEmpty();
+        }
+        if (a.getItem() != b.getItem()) {
+            return false;
+        }
+        return patchEqualsIgnoringLore(a.getComponentsPatch(), b.getComponentsPatch());
+    }
+
+    public Item getItem() {
+        return item;
+    }
+
+    public boolean isEmpty() {
+        return this == EMPTY;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (!(obj instanceof ItemKey other)) return false;
+        return hash == other.hash && item == other.item && patch.equals(other.patch);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return "ItemKey{" + item + ", " + patch + "}";
+    }
+
+    // === 内部方法 ===
+
+    private static boolean patchEqualsIgnoringLore(DataComponentPatch a, DataComponentPatch b) {
+        if (a == b) return true;
+
+        boolean aLore = a.get(DataComponents.LORE) != null;
+        boolean bLore = b.get(DataComponents.LORE) != null;
+        if (!aLore && !bLore) {
+            return a.equals(b);
+        }
+        if (a.size() - (aLore ? 1 : 0) != b.size() - (bLore ? 1 : 0)) {
+            return false;
+        }
+
+        for (Map.Entry<DataComponentType<?>, Optional<?>> entry : a.entrySet()) {
+            if (entry.getKey() == DataComponents.LORE) continue;
+            if (!Objects.equals(entry.getValue(), b.get(entry.getKey()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,13 @@
+package com.klnon.recyclingservice.content.cleanup.entity;
+
+/**
+ * 维度缓存句柄接口 - 由ServerLevel的Mixin实现
+ * 热路径直接通过Level取得本维度缓存，无需按ResourceLocation查找
+ */
+public interface LevelEntityCacheHolder {
+
+    /**
+     * 获取本维度的实体缓存
+     */
+    DimensionEntityCache recyclingservice$getEntityCache();
+}
@@ -0,0 +1,168 @@
+package com.klnon.recyclingservice.content.cleanup.entity;
+
+import com.klnon.recyclingservice.Config;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.entity.item.ItemEntity;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * 上报资格调度器 - 每个维度一个时间轮
+ * 实体在首次服务端tick时登记，到达配置的存活时间才检查一次过滤条件
+ * 只有物品变化（setItem）、合并降低存活时间、Create处理中或过滤决策表重建（配置、标签重载）时才会重新登记，长期存在的掉落物不再反复过滤
+ * 时间轮只在服务端线程访问；其他实体tick线程的登记先进入无锁队列，下次推进时并入
+ * 时间轮只弱引用实体：存活阈值可长达一小时，被拾取或移除的实体不会因等待检查而滞留在内存中
+ */
+public class ReportScheduler {
+
+    // Create处理中的物品重新检查间隔
+    private static final int CREATE_RECHECK_TICKS = 20 * 4;
+    // ItemEntity永不消失时的age标记值（ItemEntity.setUnlimitedLifetime）
+    private static final int INFINITE_LIFETIME = -32768;
+
+    private final DimensionEntityCache cache;
+    private final TimingWheel<WeakReference<Entity>> wheel = new TimingWheel<>();
+    private final Consumer<WeakReference<Entity>> evaluator = this::evaluateIfAlive;
+    // 其他线程的登记请求（多生产者、服务端线程单消费者）
+    private final ConcurrentLinkedQueue<Deferred> deferred = new ConcurrentLinkedQueue<>();
+    private long now;
+
+    public ReportScheduler(DimensionEntityCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * 按实体当前存活时间登记首次检查
+     */
+    public void scheduleFirstCheck(Entity entity) {
+        int age = getAge(entity);
+        if (age == INFINITE_LIFETIME) {
+            return;
+        }
+        schedule(entity, Config.getReportAgeTicks() - age);
+    }
+
+    /**
+     * 登记在指定tick数后重新检查
+     */
+    public void schedule(Entity entity, int delayTicks) {
+        long gameTime = entity.level().getGameTime();
+        long dueTick = gameTime + Math.max(1, delayTicks);
+        if (DimensionEntityCache.isOwnerThread(entity)) {
+            wheel.schedule(new WeakReference<>(entity), dueTick, gameTime);
+        } else {
+            deferred.offer(new Deferred(entity, dueTick));
+        }
+    }
+
+    /**
+     * 推进时间轮，检查到期的实体（ServerTickEvent.Post调用）
+     */
+    public void advance(long gameTime) {
+        now = gameTime;
+        Deferred request;
+        while ((request = deferred.poll()) != null) {
+            wheel.schedule(new WeakReference<>(request.entity()), request.dueTick(), gameTime);
+        }
+        wheel.advance(gameTime, evaluator);
+    }
+
+    /**
+     * 实体持有的结论早于当前过滤决策表时，登记下一tick重新检查（实体tick时调用）
+     * 结论清零后才会被重新检查写入，过期期间不会重复登记
+     */
+    public void recheckIfStale(Entity entity) {
+        ReportableEntity state = (ReportableEntity) entity;
+        int generation = state.recyclingservice$getFilterGeneration();
+        if (generation == 0 || generation == Config.getFilterGeneration()) {
+            return;
+        }
+        state.recyclingservice$setFilterGeneration(0);
+        schedule(entity, 1);
+    }
+
+    /**
+     * 存活时间被降低（如合并时取两者较小值）后，已上报但未达到阈值的实体取消上报，按剩余时间重新登记
+     * @return 是否取消了上报
+     */
+    public boolean unreportIfTooYoung(Entity entity) {
+        int age = getAge(entity);
+        int remaining = Config.getReportAgeTicks() - age;
+        if (age == INFINITE_LIFETIME || remaining <= 0 || !EntityCache.isEntityReported(entity)) {
+            return false;
+        }
+        cache.queueRemove(entity);
+        schedule(entity, remaining);
+        return true;
+    }
+
+    public int size() {
+        return wheel.size();
+    }
+
+    // === 内部方法 ===
+
+    private void evaluateIfAlive(WeakReference<Entity> reference) {
+        Entity entity = reference.get();
+        if (entity != null) {
+            evaluate(entity);
+        }
+    }
+
+    private void evaluate(Entity entity) {
+        if (entity.isRemoved()) {
+            return;
+        }
+        // 先清除旧结论，只有得出新结论时才记录版本；等待中的实体由自己的重查负责
+        ReportableEntity state = (ReportableEntity) entity;
+        state.recyclingservice$setFilterGeneration(0);
+
+        boolean reported = EntityCache.isEntityReported(entity);
+        int age = getAge(entity);
+        if (age == INFINITE_LIFETIME) {
+            if (reported) cache.queueRemove(entity);
+            return;
+        }
+
+        // 存活时间被重置（如延长寿命）时按剩余时间重新登记
+        int remaining = Config.getReportAgeTicks() - age;
+        if (remaining > 0) {
+            if (reported) cache.queueRemove(entity);
+            wheel.schedule(new WeakReference<>(entity), now + remaining, now);
+            return;
+        }
+
+        // 先读版本再查表：重建期间读到旧版本时，下次tick会再检查一次
+        int generation = Config.getFilterGeneration();
+        boolean eligible;
+        if (entity instanceof ItemEntity item) {
+            // Create处理中：暂不上报，定期重查直到处理结束
+            if (Config.GAMEPLAY.protectCreateProcessingItems.get() && EntityFilter.isBeingProcessedByCreate(item)) {
+                if (reported) cache.queueRemove(entity);
+                wheel.schedule(new WeakReference<>(entity), now + CREATE_RECHECK_TICKS, now);
+                return;
+            }
+            eligible = EntityFilter.shouldCleanItem(item);
+        } else {
+            eligible = EntityFilter.shouldCleanProjectile(entity);
+        }
+        state.recyclingservice$setFilterGeneration(generation);
+
+        if (eligible && !reported) {
+            cache.queueReport(entity);
+        } else if (!eligible && reported) {
+            cache.queueRemove(entity);
+        }
+    }
+
+    private static int getAge(Entity entity) {
+        return entity instanceof ItemEntity item ? item.getAge() : entity.tickCount;
+    }
+
+    /**
+     * 其他线程登记的检查请求
+     */
+    private record Deferred(Entity entity, long dueTick) {}
+}
@@ -0,0 +1,40 @@
+package com.klnon.recyclingservice.content.cleanup.entity;
+
+/**
+ * 可上报实体接口 - 由ItemEntity/Projectile的Mixin实现
+ * 上报状态直接存放在实体字段上，稳态检查只是一次字段读取
+ */
+public interface ReportableEntity {
+
+    /**
+     * 是否已上报到缓存
+     */
+    boolean recyclingservice$isReported();
+
+    /**
+     * 上报时的游戏刻
+     */
+    long recyclingservice$getReportTick();
+
+    /**
+     * 更新上报状态（由DimensionEntityCache在状态变化时调用）
+     */
+    void recyclingservice$setReported(boolean reported, long gameTime);
+
+    /**
+     * 最近一次得出上报结论时的过滤决策表版本，0表示尚无结论（未检查或等待重查中）
+     */
+    int recyclingservice$getFilterGeneration();
+
+    /**
+     * 记录得出结论时的过滤决策表版本（由ReportScheduler调用）
+     */
+    void recyclingservice$setFilterGeneration(int generation);
+
+    /**
+     * 最后一次在缓存中生效的上报/取消上报操作的序号（由DimensionEntityCache刷入时读写）
+     */
+    long recyclingservice$getAppliedSequence();
+
+    void recyclingservice$setAppliedSequence(long sequence);
+}
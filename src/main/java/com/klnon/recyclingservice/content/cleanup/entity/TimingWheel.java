@@ -0,0 +1,162 @@
+package com.klnon.recyclingservice.content.cleanup.entity;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+
+import java.util.ArrayList;
+import java.util.function.Consumer;
+
+/**
+ * 两级分层时间轮 - 按游戏刻调度一次性任务
+ * 第一级256格，每格1tick；第二级64格，每格256tick（约13.6分钟）；更远的任务放入溢出桶
+ * 调度与到期都是O(1)均摊，只在第二级格子轮转时整体下沉一次
+ * 非线程安全，只在服务端线程使用
+ */
+public class TimingWheel<T> {
+
+    private static final int WHEEL0_BITS = 8;
+    private static final int WHEEL0_SIZE = 1 << WHEEL0_BITS;
+    private static final int WHEEL0_MASK = WHEEL0_SIZE - 1;
+    private static final int WHEEL1_SIZE = 64;
+    private static final int WHEEL1_MASK = WHEEL1_SIZE - 1;
+    private static final long WHEEL1_SPAN = (long) WHEEL0_SIZE * WHEEL1_SIZE;
+
+    // 一次推进最多回放的tick数，避免长时间暂停后逐tick追赶
+    private static final int MAX_CATCH_UP = WHEEL0_SIZE;
+
+    private final Bucket<T>[] wheel0;
+    private final Bucket<T>[] wheel1;
+    private final Bucket<T> overflow = new Bucket<>();
+
+    // 已处理到的tick，-1表示尚未开始
+    private long currentTick = -1;
+    private int size = 0;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel() {
+        wheel0 = new Bucket[WHEEL0_SIZE];
+        wheel1 = new Bucket[WHEEL1_SIZE];
+        for (int i = 0; i < WHEEL0_SIZE; i++) wheel0[i] = new Bucket<>();
+        for (int i = 0; i < WHEEL1_SIZE; i++) wheel1[i] = new Bucket<>();
+    }
+
+    /**
+     * 调度任务在指定tick到期，已过期的时间会被推迟到下一tick
+     * @param now 当前游戏刻（本tick视为已处理）
+     */
+    public void schedule(T item, long dueTick, long now) {
+        if (currentTick < 0) {
+            currentTick = now;
+        }
+        place(item, Math.max(dueTick, currentTick + 1), currentTick);
+        size++;
+    }
+
+    /**
+     * 推进到指定tick，依次回调到期的任务
+     */
+    public void advance(long now, Consumer<T> onDue) {
+        if (currentTick < 0) {
+            currentTick = now - 1;
+        }
+        // 暂停过久时直接跳到最近的窗口，过期任务在补回放中全部到期
+        if (now - currentTick > MAX_CATCH_UP) {
+            rebase(now - MAX_CATCH_UP);
+        }
+
+        while (currentTick < now) {
+            long tick = ++currentTick;
+
+            if ((tick & WHEEL0_MASK) == 0) {
+                int index = (int) ((tick >> WHEEL0_BITS) & WHEEL1_MASK);
+                if (index == 0) {
+                    cascade(overflow, tick);
+                }
+                cascade(wheel1[index], tick);
+            }
+
+            Bucket<T> bucket = wheel0[(int) (tick & WHEEL0_MASK)];
+            if (bucket.items.isEmpty()) continue;
+
+            // 先取出再回调，回调中可能重新调度
+            ArrayList<T> due = new ArrayList<>(bucket.items);
+            size -= due.size();
+            bucket.clear();
+            for (T item : due) {
+                onDue.accept(item);
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // === 内部方法 ===
+
+    /**
+     * 放置任务，base为最后处理完的tick，dueTick必须大于base
+     */
+    private void place(T item, long dueTick, long base) {
+        long delta = dueTick - base;
+        if (delta <= WHEEL0_SIZE) {
+            wheel0[(int) (dueTick & WHEEL0_MASK)].add(item, dueTick);
+        } else if (delta < WHEEL1_SPAN) {
+            wheel1[(int) ((dueTick >> WHEEL0_BITS) & WHEEL1_MASK)].add(item, dueTick);
+        } else {
+            overflow.add(item, dueTick);
+        }
+    }
+
+    /**
+     * 把上级桶中的任务按剩余时间重新放置
+     */
+    private void cascade(Bucket<T> bucket, long tick) {
+        if (bucket.items.isEmpty()) return;
+
+        ArrayList<T> items = new ArrayList<>(bucket.items);
+        LongArrayList dues = new LongArrayList(bucket.dues);
+        bucket.clear();
+        for (int i = 0; i < items.size(); i++) {
+            place(items.get(i), Math.max(dues.getLong(i), tick), tick - 1);
+        }
+    }
+
+    /**
+     * 跳过长时间暂停：把所有任务取出后以新的起点重新放置
+     */
+    private void rebase(long newCurrent) {
+        Bucket<T> all = new Bucket<>();
+        for (Bucket<T> bucket : wheel0) all.drain(bucket);
+        for (Bucket<T> bucket : wheel1) all.drain(bucket);
+        all.drain(overflow);
+
+        currentTick = newCurrent;
+        for (int i = 0; i < all.items.size(); i++) {
+            place(all.items.get(i), Math.max(all.dues.getLong(i), newCurrent + 1), newCurrent);
+        }
+    }
+
+    /**
+     * 时间轮格子：任务与到期tick并列存储
+     */
+    private static final class Bucket<T> {
+        private final ArrayList<T> items = new ArrayList<>();
+        private final LongArrayList dues = new LongArrayList();
+
+        private void add(T item, long dueTick) {
+            items.add(item);
+            dues.add(dueTick);
+        }
+
+        private void drain(Bucket<T> other) {
+            items.addAll(other.items);
+            dues.addAll(other.dues);
+            other.clear();
+        }
+
+        private void clear() {
+            items.clear();
+            dues.clear();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.klnon.recyclingservice.content.trashbox;
+
+import com.klnon.recyclingservice.foundation.utility.UiHelper;
+import net.minecraft.core.NonNullList;
+import net.minecraft.world.inventory.AbstractContainerMenu;
+import net.minecraft.world.inventory.ContainerSynchronizer;
+import net.minecraft.world.item.ItemStack;
+
+import javax.annotation.Nonnull;
+
+/**
+ * 数量Lore同步装饰器 - 包装玩家的容器同步器
+ * 垃圾箱槽位中超过原版上限的物品在发包前生成带真实数量Lore的副本
+ * 传入的物品堆是菜单remoteSlots中的比较副本，不能就地修改
+ */
+class CountLoreSynchronizer implements ContainerSynchronizer {
+
+    private final ContainerSynchronizer delegate;
+    private final int trashSlots;
+
+    CountLoreSynchronizer(ContainerSynchronizer delegate, int trashSlots) {
+        this.delegate = delegate;
+        this.trashSlots = trashSlots;
+    }
+
+    @Override
+    public void sendInitialData(@Nonnull AbstractContainerMenu menu, @Nonnull NonNullList<ItemStack> items,
+                                @Nonnull ItemStack carried, @Nonnull int[] initialData) {
+        NonNullList<ItemStack> decorated = NonNullList.withSize(items.size(), ItemStack.EMPTY);
+        for (int i = 0; i < items.size(); i++) {
+            ItemStack stack = items.get(i);
+            decorated.set(i, i < trashSlots ? UiHelper.withCountLore(stack) : stack);
+        }
+        delegate.sendInitialData(menu, decorated, carried, initialData);
+    }
+
+    @Override
+    public void sendSlotChange(@Nonnull AbstractContainerMenu menu, int slot, @Nonnull ItemStack stack) {
+        delegate.sendSlotChange(menu, slot, slot < trashSlots ? UiHelper.withCountLore(stack) : stack);
+    }
+
+    /**
+     * 发送已装饰好的槽位物品（TrashBoxViewers共享的显示副本），不再重复装饰
+     */
+    void sendPrepared(AbstractContainerMenu menu, int slot, ItemStack display) {
+        delegate.sendSlotChange(menu, slot, display);
+    }
+
+    @Override
+    public void sendCarriedChange(@Nonnull AbstractContainerMenu menu, @Nonnull ItemStack stack) {
+        delegate.sendCarriedChange(menu, stack);
+    }
+
+    @Override
+    public void sendDataChange(@Nonnull AbstractContainerMenu menu, int id, int value) {
+        delegate.sendDataChange(menu, id, value);
+    }
+}
@@ -1,12 +1,14 @@
 package com.klnon.recyclingservice.content.trashbox;
 
-import com.klnon.recyclingservice.content.cleanup.entity.EntityMerger;
+import com.klnon.recyclingservice.content.cleanup.entity.ItemKey;
 import com.klnon.recyclingservice.content.trashbox.core.TrashBox;
 import com.klnon.recyclingservice.content.trashbox.core.TrashInventory;
 import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.MinecraftServer;
 import net.minecraft.world.item.ItemStack;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * 垃圾箱管理器 - trashbox包的统一入口
@@ -28,13 +30,39 @@ public class TrashBoxManager {
     }
     
     /**
-     * 将物品添加到指定维度的垃圾箱系统
+     * 将物品添加到指定维度的垃圾箱系统，放不下时依次溢出到后续垃圾箱
      * 
      * @param dimensionId 维度ID
-     * @param item 要添加的物品
+     * @param item 要添加的物品，会被就地扣减
+     * @return 所有垃圾箱都放不下的剩余部分，全部放入时为ItemStack.EMPTY
      */
-    public static void addItemToDimension(ResourceLocation dimensionId, ItemStack item) {
-        trashStorage.addItemToDimension(dimensionId, item);
+    public static ItemStack addItemToDimension(ResourceLocation dimensionId, ItemStack item) {
+        return trashStorage.addItemToDimension(dimensionId, item);
+    }
+    
+    /**
+     * 批量添加物品到指定维度的垃圾箱系统，按物品种类一次性放入
+     * 
+     * @param dimensionId 维度ID
+     * @param stacks 要添加的物品，不会被修改
+     * @return 所有垃圾箱都放不下的剩余部分（按物品键合并）
+     */
+    public static List<ItemStack> addAll(ResourceLocation dimensionId, List<ItemStack> stacks) {
+        return trashStorage.addAll(dimensionId, stacks);
+    }
+    
+    /**
+     * 获取指定维度本轮清理的溢出物品数量
+     */
+    public static int getOverflowCount(ResourceLocation dimensionId) {
+        return trashStorage.getOverflowCount(dimensionId);
+    }
+    
+    /**
+     * 获取所有维度本轮清理的溢出物品数量
+     */
+    public static Map<ResourceLocation, Integer> getOverflowCounts() {
+        return trashStorage.getOverflowCounts();
     }
     
     /**
@@ -48,7 +76,7 @@ public class TrashBoxManager {
     }
     
     /**
-     * 清空所有垃圾箱
+     * 清空所有垃圾箱并重置溢出统计
      */
     public static void clearAll() {
         trashStorage.clearAll();
@@ -56,6 +84,14 @@ public class TrashBoxManager {
     
     // === UI辅助功能 ===
     
+    /**
+     * 按配置的排列顺序整理指定维度的垃圾箱
+     * @return 整理的物品堆数量
+     */
+    public static int sortDimension(ResourceLocation dimensionId) {
+        return trashStorage.sortDimension(dimensionId);
+    }
+    
     /**
      * 检查两个物品是否为同一种物品（用于UI操作中的物品比较）
      * @param stack1 第一个物品
@@ -63,6 +99,34 @@ public class TrashBoxManager {
      * @return 是否为同一种物品
      */
     public static boolean isSameItem(ItemStack stack1, ItemStack stack2) {
-        return EntityMerger.isSameItem(stack1, stack2);
+        return ItemKey.sameItem(stack1, stack2);
+    }
+    
+    /**
+     * 把本tick变化的垃圾箱槽位广播给正在查看的玩家（每tick调用一次）
+     */
+    public static void flushViewers() {
+        TrashBoxViewers.flush();
+    }
+    
+    /**
+     * 服务器启动时打开垃圾箱持久化存储（未启用持久化时只重置垃圾箱）
+     */
+    public static void openStorage(MinecraftServer server) {
+        trashStorage.openStorage(server);
+    }
+    
+    /**
+     * 服务器关闭时写入剩余变化并关闭持久化存储
+     */
+    public static void closeStorage() {
+        trashStorage.closeStorage();
+    }
+    
+    /**
+     * 按持久化周期提交变化的槽位（每tick调用一次）
+     */
+    public static void tickStorage() {
+        trashStorage.tickStorage();
     }
-}
\ No newline at end of file
+}
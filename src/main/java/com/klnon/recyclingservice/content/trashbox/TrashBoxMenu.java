@@ -1,5 +1,6 @@
 package com.klnon.recyclingservice.content.trashbox;
 
+import com.google.common.base.Suppliers;
 import com.klnon.recyclingservice.Config;
 import com.klnon.recyclingservice.Recyclingservice;
 
@@ -11,6 +12,7 @@ import net.minecraft.world.entity.player.Inventory;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.inventory.ChestMenu;
 import net.minecraft.world.inventory.ClickType;
+import net.minecraft.world.inventory.ContainerSynchronizer;
 import net.minecraft.world.inventory.Slot;
 import net.minecraft.world.inventory.AbstractContainerMenu;
 import net.minecraft.world.item.ItemStack;
@@ -19,6 +21,7 @@ import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.level.ServerPlayer;
 
 import java.util.List;
+import java.util.function.Supplier;
 
 import javax.annotation.Nonnull;
 import org.jetbrains.annotations.NotNull;
@@ -31,6 +34,8 @@ public class TrashBoxMenu extends ChestMenu {
     
     private final TrashBox trashBox;
     private final int trashSlots;
+    // 服务端玩家的同步器，垃圾箱槽位由TrashBoxViewers统一增量同步
+    private CountLoreSynchronizer loreSynchronizer;
 
     /**
      * 垃圾箱菜单提供者
@@ -55,6 +60,57 @@ public class TrashBoxMenu extends ChestMenu {
         this.trashSlots = Config.GAMEPLAY.trashBoxRows.get() * 9;
     }
 
+    /**
+     * 包装同步器：垃圾箱槽位发送给客户端时再生成数量Lore，存储中的物品不写Lore
+     */
+    @Override
+    public void setSynchronizer(@Nonnull ContainerSynchronizer synchronizer) {
+        boolean firstSync = loreSynchronizer == null;
+        loreSynchronizer = new CountLoreSynchronizer(synchronizer, trashSlots);
+        super.setSynchronizer(loreSynchronizer);
+        if (firstSync) {
+            TrashBoxViewers.register(trashBox, this);
+        }
+    }
+
+    @Override
+    public void removed(@Nonnull Player player) {
+        super.removed(player);
+        if (loreSynchronizer != null) {
+            TrashBoxViewers.unregister(trashBox, this);
+        }
+    }
+
+    /**
+     * 只同步玩家背包槽位与光标物品；垃圾箱槽位由TrashBoxViewers按脏槽位每tick统一广播
+     * ChestMenu没有数据槽位，无需同步DataSlot
+     */
+    @Override
+    public void broadcastChanges() {
+        for (int i = trashSlots; i < slots.size(); i++) {
+            ItemStack stack = slots.get(i).getItem();
+            Supplier<ItemStack> copy = Suppliers.memoize(stack::copy);
+            triggerSlotListeners(i, stack, copy);
+            synchronizeSlotToRemote(i, stack, copy);
+        }
+        synchronizeCarriedToRemote();
+    }
+
+    /**
+     * 观看者的客户端是否需要更新该垃圾箱槽位
+     */
+    boolean needsTrashSlotSync(int slot, ItemStack current) {
+        return loreSynchronizer != null && !ItemStack.matches(remoteSlots.get(slot), current);
+    }
+
+    /**
+     * 发送垃圾箱槽位更新，shared作为远端比较副本，display为发给客户端的显示副本（均由所有观看者共享）
+     */
+    void sendTrashSlot(int slot, ItemStack shared, ItemStack display) {
+        remoteSlots.set(slot, shared);
+        loreSynchronizer.sendPrepared(this, slot, display);
+    }
+
     // === 静态工具方法：打开垃圾箱UI ===
     
     /**
@@ -86,6 +142,10 @@ public class TrashBoxMenu extends ChestMenu {
 
     @Override
     public void clicked(int slotId, int button, @Nonnull ClickType clickType, @Nonnull Player player) {
+        // 客户端会本地预测点击结果，预测可能与服务端不同（或操作被拒绝），
+        // 标记本次点击可能影响的垃圾箱槽位，tick结束时校正（与远端一致的槽位不会发包）
+        markPredictedSlots(slotId, clickType);
+        
         // 支付检查和扣除
         if (!validateAndProcessPayment(slotId, button, clickType, player, slots, getCarried())) {
             return; // 邮费不足，阻止操作
@@ -109,6 +169,22 @@ public class TrashBoxMenu extends ChestMenu {
         super.clicked(slotId, button, clickType, player);
     }
     
+    /**
+     * 标记客户端可能预测修改的垃圾箱槽位：被点击的槽位，
+     * 以及双击收集与从背包快速移动时涉及的同类物品槽位和第一个空槽位
+     */
+    private void markPredictedSlots(int slotId, ClickType clickType) {
+        if (slotId < 0 || slotId >= slots.size()) return;
+        if (slotId < trashSlots) {
+            trashBox.markForSync(slotId);
+        }
+        if (clickType == ClickType.PICKUP_ALL) {
+            trashBox.markForSync(getCarried().isEmpty() ? slots.get(slotId).getItem() : getCarried());
+        } else if (clickType == ClickType.QUICK_MOVE && slotId >= trashSlots) {
+            trashBox.markForSync(slots.get(slotId).getItem());
+        }
+    }
+    
     /**
      * 处理垃圾箱槽位的点击事件
      */
@@ -137,10 +213,6 @@ public class TrashBoxMenu extends ChestMenu {
             super.clicked(slotId, button, clickType, player);
             return;
         }
-        
-        // 统一更新受影响的物品
-        UiHelper.updateTooltip(slotItem);
-        UiHelper.updateTooltip(result);
     }
 
     /**
@@ -156,8 +228,7 @@ public class TrashBoxMenu extends ChestMenu {
                  slotItem.getMaxStackSize()/2 : (slotItem.getCount() + 1) / 2));
             
             ItemStack result = slotItem.copyWithCount(moveCount);
-            UiHelper.updateSlotAfterMove(slot, moveCount);
-            trashBox.setChanged();
+            trashBox.shrinkSlot(slot.index, moveCount);
             return result;
             
         } else if (!carried.isEmpty()) {
@@ -205,7 +276,7 @@ public class TrashBoxMenu extends ChestMenu {
             int moveCount = Math.min(slotItem.getMaxStackSize(), slotItem.getCount());
             ItemStack result = slotItem.copyWithCount(moveCount);
             player.getInventory().setItem(button, result);
-            UiHelper.updateSlotAfterMove(slot, moveCount);
+            trashBox.shrinkSlot(slot.index, moveCount);
             return result;
         }
         
@@ -226,26 +297,9 @@ public class TrashBoxMenu extends ChestMenu {
             return result;
         }
         
-        // 收集垃圾箱内所有相同物品
-        int maxStackSize = result.getMaxStackSize();
-        List<Integer> sameItemSlots = trashBox.getSameItemSlots(result);
-        
-        for (Integer slotIndex : sameItemSlots) {
-            if (result.getCount() >= maxStackSize) break;
-            
-            ItemStack slotItem = trashBox.getItem(slotIndex);
-            int maxTake = Math.min(slotItem.getMaxStackSize(), slotItem.getCount());
-            int canAdd = maxStackSize - result.getCount();
-            int takeAmount = Math.min(maxTake, canAdd);
-            
-            if (takeAmount > 0) {
-                result.grow(takeAmount);
-                Slot tempSlot = new Slot(trashBox, slotIndex, 0, 0) {};
-                UiHelper.updateSlotAfterMove(tempSlot, takeAmount);
-            }
-        }
-        
-        trashBox.setChanged();
+        // 按物品索引直接收集垃圾箱内所有相同物品
+        int collected = trashBox.collectSameItem(result, result.getMaxStackSize() - result.getCount());
+        result.grow(collected);
         return result;
     }
     
@@ -261,7 +315,8 @@ public class TrashBoxMenu extends ChestMenu {
             ItemStack moveItem = slotItem.copyWithCount(moveCount);
 
             if (moveItemStackTo(moveItem, trashSlots, slots.size(), true)) {
-                UiHelper.updateSlotAfterMove(slot, moveCount);
+                // 背包可能只放下一部分，只扣减实际移动的数量
+                trashBox.shrinkSlot(index, moveCount - moveItem.getCount());
                 return ItemStack.EMPTY;
             }
         } else {
@@ -291,7 +346,6 @@ public class TrashBoxMenu extends ChestMenu {
     private void handleThrowClick(Slot slot, int button, Player player) {
         ItemStack result = slot.getItem();
         int throwCount = button == 0 ? 1 : result.getCount();
-        UiHelper.cleanItemStack(result);
         result = slot.safeTake(throwCount, Integer.MAX_VALUE, player);
         player.drop(result, true);
     }
@@ -303,22 +357,13 @@ public class TrashBoxMenu extends ChestMenu {
         if (startIndex == 0 && endIndex <= trashSlots) {
             if (stack.isEmpty()) return false;
             
-            ItemStack remaining = stack.copy();
-            trashBox.addItem(remaining);
-            
-            // 检查是否完全添加
-            if (remaining.isEmpty()) {
-                stack.setCount(0);
-                return true;
-            } else {
-                // 部分添加，更新原始栈的数量
-                stack.setCount(remaining.getCount());
-                return stack.getCount() < stack.getMaxStackSize(); // 返回是否有部分添加成功
-            }
+            // 按物品索引直接合并/放入空槽位，原始栈被就地扣减为剩余部分
+            int before = stack.getCount();
+            trashBox.addItem(stack);
+            return stack.getCount() < before; // 返回是否有物品添加成功
         }
         
         // 其他情况使用原版逻辑
-        UiHelper.updateTooltip(stack);
         return super.moveItemStackTo(stack, startIndex, endIndex, reverseDirection);
     }
 
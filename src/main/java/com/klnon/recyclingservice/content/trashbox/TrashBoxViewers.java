@@ -0,0 +1,67 @@
+package com.klnon.recyclingservice.content.trashbox;
+
+import com.klnon.recyclingservice.content.trashbox.core.TrashBox;
+import com.klnon.recyclingservice.foundation.utility.UiHelper;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import net.minecraft.world.item.ItemStack;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * 垃圾箱观看者注册表 - 垃圾箱槽位的增量同步
+ * 菜单的broadcastChanges不再逐个比较垃圾箱槽位，改为每tick结束时按脏槽位统一广播：
+ * 同一槽位在一tick内的多次变化只发送一次，每个槽位只生成一份副本（和一份带Lore的显示副本）供所有观看者共享
+ * 只在服务端线程使用
+ */
+public class TrashBoxViewers {
+
+    private static final Reference2ObjectOpenHashMap<TrashBox, List<TrashBoxMenu>> viewers = new Reference2ObjectOpenHashMap<>();
+
+    /**
+     * 登记打开垃圾箱的菜单
+     */
+    public static void register(TrashBox trashBox, TrashBoxMenu menu) {
+        viewers.computeIfAbsent(trashBox, k -> new ArrayList<>()).add(menu);
+    }
+
+    /**
+     * 菜单关闭时取消登记
+     */
+    public static void unregister(TrashBox trashBox, TrashBoxMenu menu) {
+        List<TrashBoxMenu> menus = viewers.get(trashBox);
+        if (menus != null && menus.remove(menu) && menus.isEmpty()) {
+            viewers.remove(trashBox);
+        }
+    }
+
+    /**
+     * 把各垃圾箱本tick变化的槽位广播给所有观看者（ServerTickEvent.Post调用）
+     * 没有观看者的垃圾箱不需要广播，打开时会发送完整内容
+     */
+    public static void flush() {
+        for (var entry : viewers.reference2ObjectEntrySet()) {
+            TrashBox trashBox = entry.getKey();
+            BitSet dirty = trashBox.getDirtySlots();
+            if (dirty.isEmpty()) continue;
+
+            List<TrashBoxMenu> menus = entry.getValue();
+            for (int slot = dirty.nextSetBit(0); slot >= 0; slot = dirty.nextSetBit(slot + 1)) {
+                ItemStack current = trashBox.getItem(slot);
+                ItemStack shared = null;
+                ItemStack display = null;
+                for (TrashBoxMenu menu : menus) {
+                    // 已与观看者一致（如点击者本地预测正确）时不发包，也不生成副本
+                    if (!menu.needsTrashSlotSync(slot, current)) continue;
+                    if (shared == null) {
+                        shared = current.copy();
+                        display = UiHelper.withCountLore(shared);
+                    }
+                    menu.sendTrashSlot(slot, shared, display);
+                }
+            }
+            dirty.clear();
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package com.klnon.recyclingservice.content.trashbox.core;
 
-import com.klnon.recyclingservice.content.cleanup.CleanupManager;
-import com.klnon.recyclingservice.foundation.utility.UiHelper;
+import com.klnon.recyclingservice.content.cleanup.entity.ItemKey;
+import it.unimi.dsi.fastutil.ints.IntIterator;
+import it.unimi.dsi.fastutil.ints.IntRBTreeSet;
+import it.unimi.dsi.fastutil.ints.IntSortedSet;
 import net.minecraft.core.NonNullList;
 import net.minecraft.world.Container;
 import net.minecraft.world.entity.player.Player;
@@ -23,15 +25,36 @@ public class TrashBox implements Container {
     private final int boxNumber;
     private final ResourceLocation dimensionId;
     
-    // 统一索引：物品类型->槽位列表，EMPTY表示空位置
-    private final Map<String, List<Integer>> itemTypeSlots = new HashMap<>();
-    private static final String EMPTY_KEY = "EMPTY";
+    // 物品索引：物品类型->有序槽位集合（原始int，不装箱）
+    private final Map<ItemKey, IntSortedSet> itemTypeSlots = new HashMap<>();
+    // 空槽位位图，置位表示空；从前往后填充取nextSetBit(0)
+    private final BitSet emptySlots;
+    // 每个槽位当前的物品键，移除索引时无需重新计算
+    private final ItemKey[] slotKeys;
+    // 非空槽位数量，随索引增量维护
+    private int usedSlots = 0;
+    // 自上次同步后变化的槽位，由TrashBoxViewers每tick合并广播一次
+    private final BitSet dirtySlots;
+    // 自上次写入持久化日志后变化的槽位，由TrashInventory按持久化周期读取
+    private final BitSet unsavedSlots;
+    // 排列顺序及排序索引：排序值->有序槽位集合，新物品据此放到前后两类之间的空槽位
+    private TrashSortOrder order;
+    private final TreeMap<Long, IntSortedSet> rankSlots = new TreeMap<>();
+    private final long[] slotRanks;
+    // 是否有物品不在排列顺序的位置上（区间已满时放入其他空位，或玩家手动放置），整理后恢复
+    private boolean outOfOrder = false;
     
     public TrashBox(int capacity, int boxNumber, ResourceLocation dimensionId) {
         this.capacity = capacity;
         this.boxNumber = boxNumber;
         this.dimensionId = dimensionId;
         this.items = NonNullList.withSize(capacity, ItemStack.EMPTY);
+        this.slotKeys = new ItemKey[capacity];
+        this.emptySlots = new BitSet(capacity);
+        this.dirtySlots = new BitSet(capacity);
+        this.unsavedSlots = new BitSet(capacity);
+        this.slotRanks = new long[capacity];
+        this.order = TrashSortOrder.current();
         initializeIndex();
     }
     
@@ -40,60 +63,130 @@ public class TrashBox implements Container {
      */
     private void initializeIndex() {
         itemTypeSlots.clear();
-        List<Integer> emptySlots = new ArrayList<>();
-        for (int i = capacity - 1; i >= 0; i--) {  // 从大到小,从前往后填充
-            emptySlots.add(i);
-        }
-        itemTypeSlots.put(EMPTY_KEY, emptySlots);
+        rankSlots.clear();
+        outOfOrder = false;
+        Arrays.fill(slotKeys, ItemKey.EMPTY);
+        emptySlots.set(0, capacity);
+        usedSlots = 0;
     }
     
     /**
-     * 添加物品到垃圾箱
+     * 添加物品到垃圾箱，物品被就地扣减为未能放入的剩余部分
+     * 物品键只生成一次，合并与放入空槽位共用
+     * @return 是否全部放入
      */
-    public void addItem(ItemStack item) {
+    public boolean addItem(ItemStack item) {
+        ItemKey key = ItemKey.of(item);
+        
         // 1. 尝试合并到相同物品槽位
-        if (tryMergeToExisting(item)) {
-            return;
+        if (mergeInto(key, item)) {
+            return true;
         }
         
-        // 2. 放入空槽位
-        tryAddToEmptySlot(item, -1);
+        // 2. 按排列顺序放入空槽位
+        int emptySlot = findInsertSlot(key);
+        if (emptySlot >= 0) {
+            placeInSlot(emptySlot, item.copy(), key);
+            item.setCount(0);
+            return true;
+        }
+        return false;
     }
 
     public boolean tryMergeToExisting(ItemStack item) {
-        String itemKey = CleanupManager.generateComplexItemKey(item);
-        List<Integer> sameTypeSlots = itemTypeSlots.get(itemKey);
+        return mergeInto(ItemKey.of(item), item);
+    }
+
+    public boolean tryAddToEmptySlot(ItemStack item, int slot) {
+        if (slot != -1) {
+            setItem(slot, item.copy());
+            return true;
+        }
         
+        ItemKey key = ItemKey.of(item);
+        int emptySlot = findInsertSlot(key);
+        if (emptySlot >= 0) {
+            placeInSlot(emptySlot, item.copy(), key);
+            return true;
+        }
+        return false;
+    }
+    
+    /**
+     * 按已生成的物品键合并到已有同类槽位，物品被就地扣减
+     * @return 是否全部合并
+     */
+    private boolean mergeInto(ItemKey key, ItemStack item) {
+        IntSortedSet sameTypeSlots = itemTypeSlots.get(key);
         if (sameTypeSlots == null) return false;
         
-        for (Integer slot : sameTypeSlots) {
-            ItemStack slotItem = getItem(slot);
+        IntIterator iterator = sameTypeSlots.iterator();
+        while (iterator.hasNext() && !item.isEmpty()) {
+            int slot = iterator.nextInt();
+            ItemStack slotItem = items.get(slot);
             
-            int configLimit = Config.getItemStackMultiplier(slotItem);
-            int canAdd = configLimit - slotItem.getCount();
+            int canAdd = Config.getItemStackMultiplier(slotItem) - slotItem.getCount();
             if (canAdd <= 0) continue;
             
             int addAmount = Math.min(canAdd, item.getCount());
             slotItem.grow(addAmount);
-            UiHelper.updateTooltip(slotItem);
             item.shrink(addAmount);
+            markDirty(slot);
         }
         return item.isEmpty();
     }
-
-    public boolean tryAddToEmptySlot(ItemStack item, int slot) {
-        if (slot != -1) {
-            setItem(slot, item.copy());
-            return true;
+    
+    /**
+     * 批量合并到已有同类槽位
+     * @param stacks 已按物品键分组的物品，会被就地扣减
+     */
+    public void mergeAll(List<ItemStack> stacks) {
+        for (ItemStack stack : stacks) {
+            if (!stack.isEmpty()) {
+                mergeInto(ItemKey.of(stack), stack);
+            }
         }
-        
-        List<Integer> emptySlots = itemTypeSlots.get(EMPTY_KEY);
-        if (emptySlots != null && !emptySlots.isEmpty()) {
-            Integer emptySlot = emptySlots.removeLast();
-            setItem(emptySlot, item.copy());
-            return true;
+    }
+    
+    /**
+     * 批量放入空槽位，每个槽位最多放入堆叠上限
+     * @param stacks 已按物品键分组的物品，会被就地扣减
+     */
+    public void fillEmptySlots(List<ItemStack> stacks) {
+        for (ItemStack stack : stacks) {
+            if (stack.isEmpty()) continue;
+            ItemKey key = ItemKey.of(stack);
+            while (!stack.isEmpty()) {
+                int slot = findInsertSlot(key);
+                if (slot < 0) break;
+                
+                int amount = Math.min(stack.getCount(), Config.getItemStackMultiplier(stack));
+                placeInSlot(slot, stack.copyWithCount(amount), key);
+                stack.shrink(amount);
+            }
         }
-        return false;
+        setChanged();
+    }
+    
+    /**
+     * 批量添加：先合并再放入空槽位
+     * @param stacks 已按物品键分组的物品，会被就地扣减为剩余部分
+     * @return 是否全部放入
+     */
+    public boolean addAll(List<ItemStack> stacks) {
+        mergeAll(stacks);
+        fillEmptySlots(stacks);
+        for (ItemStack stack : stacks) {
+            if (!stack.isEmpty()) return false;
+        }
+        return true;
+    }
+    
+    /**
+     * 是否还有空槽位（索引查询，O(1)）
+     */
+    public boolean hasEmptySlot() {
+        return usedSlots < capacity;
     }
     
     /**
@@ -127,9 +220,11 @@ public class TrashBox implements Container {
             // 移除整个物品堆
             result = stackInSlot;
             items.set(slot, ItemStack.EMPTY);
+            updateIndex(slot, ItemKey.EMPTY);
         } else {
             // 移除部分物品
             result = stackInSlot.split(amount);
+            markDirty(slot);
         }
 
         setChanged();
@@ -148,6 +243,7 @@ public class TrashBox implements Container {
         // 移除整个物品堆，不触发变更事件
         ItemStack stackInSlot = items.get(slot);
         items.set(slot, ItemStack.EMPTY);
+        updateIndex(slot, ItemKey.EMPTY);
         return stackInSlot;
     }
 
@@ -160,51 +256,212 @@ public class TrashBox implements Container {
             return;
         }
         
-        ItemStack oldItem = items.get(slot);
-        
-        // 准备新物品
-        ItemStack newItem = stack.isEmpty() ? ItemStack.EMPTY : stack.copy();
-        UiHelper.updateTooltip(newItem);
+        // 与原版容器一致直接持有传入的物品堆，数量Lore只在同步给客户端时生成
+        ItemStack newItem = stack.isEmpty() ? ItemStack.EMPTY : stack;
         
-        // 更新存储
+        // 更新存储与索引
         items.set(slot, newItem);
+        updateIndex(slot, ItemKey.of(newItem));
+        
+        setChanged();
+    }
+
+    /**
+     * 放入空槽位，使用调用方已生成的物品键
+     */
+    private void placeInSlot(int slot, ItemStack stack, ItemKey key) {
+        items.set(slot, stack);
+        updateIndex(slot, key);
+        setChanged();
+    }
+
+    /**
+     * 从槽位扣减指定数量，只有槽位被取空时才更新索引（不重新生成物品键）
+     */
+    public void shrinkSlot(int slot, int amount) {
+        ItemStack stack = getItem(slot);
+        if (stack.isEmpty() || amount <= 0) return;
         
-        // 统一更新索引：先移除旧的，再添加新的
-        if (!oldItem.isEmpty()) {
-            removeFromIndex(slot, oldItem);
+        if (amount >= stack.getCount()) {
+            items.set(slot, ItemStack.EMPTY);
+            updateIndex(slot, ItemKey.EMPTY);
         } else {
-            removeFromIndex(slot, ItemStack.EMPTY);
+            stack.shrink(amount);
+            markDirty(slot);
         }
-        // 添加新索引
-        addToIndex(slot, newItem);
-        
         setChanged();
     }
 
-
-    private void removeFromIndex(int slot, ItemStack item) {
-        String key = item.isEmpty() ? EMPTY_KEY : CleanupManager.generateComplexItemKey(item);
-        List<Integer> slots = itemTypeSlots.get(key);
-        if (slots != null) {
-            slots.remove(Integer.valueOf(slot));
-            if (slots.isEmpty()) {
-                itemTypeSlots.remove(key);
+    /**
+     * 收集与目标相同的物品（双击收集），按槽位顺序从各槽位取出
+     * 每个槽位单次最多取原版堆叠上限，与逐槽位取出的语义一致
+     * @param target 目标物品（只用于确定物品类型）
+     * @param limit 最多收集的数量
+     * @return 实际收集的数量
+     */
+    public int collectSameItem(ItemStack target, int limit) {
+        if (target.isEmpty() || limit <= 0) return 0;
+        ItemKey key = ItemKey.of(target);
+        IntSortedSet sameTypeSlots = itemTypeSlots.get(key);
+        if (sameTypeSlots == null) return 0;
+        
+        int collected = 0;
+        IntIterator iterator = sameTypeSlots.iterator();
+        while (iterator.hasNext() && collected < limit) {
+            int slot = iterator.nextInt();
+            ItemStack slotItem = items.get(slot);
+            int take = Math.min(Math.min(slotItem.getMaxStackSize(), slotItem.getCount()), limit - collected);
+            if (take <= 0) continue;
+            
+            collected += take;
+            markDirty(slot);
+            if (take < slotItem.getCount()) {
+                slotItem.shrink(take);
+                continue;
             }
+            // 槽位取空：直接从正在遍历的集合中移除，其余索引同步更新
+            items.set(slot, ItemStack.EMPTY);
+            iterator.remove();
+            removeRank(slot);
+            slotKeys[slot] = ItemKey.EMPTY;
+            emptySlots.set(slot);
+            usedSlots--;
+        }
+        if (sameTypeSlots.isEmpty()) {
+            itemTypeSlots.remove(key);
         }
+        setChanged();
+        return collected;
     }
 
-    private void addToIndex(int slot, ItemStack item) {
-        String key = item.isEmpty() ? EMPTY_KEY : CleanupManager.generateComplexItemKey(item);
-        itemTypeSlots.computeIfAbsent(key, k -> new ArrayList<>()).add(slot);
+    /**
+     * 更新槽位索引：先按缓存的旧键移除，再加入新键
+     */
+    private void updateIndex(int slot, ItemKey newKey) {
+        markDirty(slot);
+        ItemKey oldKey = slotKeys[slot];
+        if (oldKey.isEmpty()) {
+            emptySlots.clear(slot);
+            usedSlots++;
+        } else {
+            IntSortedSet slots = itemTypeSlots.get(oldKey);
+            if (slots != null && slots.remove(slot) && slots.isEmpty()) {
+                itemTypeSlots.remove(oldKey);
+            }
+            removeRank(slot);
+        }
+        
+        slotKeys[slot] = newKey;
+        if (newKey.isEmpty()) {
+            emptySlots.set(slot);
+            usedSlots--;
+        } else {
+            itemTypeSlots.computeIfAbsent(newKey, k -> new IntRBTreeSet()).add(slot);
+            addRank(slot, newKey);
+        }
+    }
+    
+    // === 排列顺序 ===
+    
+    /**
+     * 按排列顺序选择放入新物品的槽位，O(log n)
+     * 在排序不大于它的最后一个槽位与排序更大的第一个槽位之间取最近的空位，放入后整箱仍保持有序
+     * 该区间已满时取第一个空位并记为乱序；不移动已有物品（避免打扰正在查看的玩家）
+     * @return 槽位，垃圾箱已满时为-1
+     */
+    private int findInsertSlot(ItemKey key) {
+        syncOrder();
+        if (order == TrashSortOrder.NONE) {
+            return emptySlots.nextSetBit(0);
+        }
+        
+        long rank = order.rank(key.getItem());
+        Map.Entry<Long, IntSortedSet> lower = rankSlots.floorEntry(rank);
+        Map.Entry<Long, IntSortedSet> higher = rankSlots.higherEntry(rank);
+        int start = lower == null ? 0 : lower.getValue().lastInt() + 1;
+        int end = higher == null ? capacity : higher.getValue().firstInt();
+        int slot = emptySlots.nextSetBit(start);
+        if (slot >= 0 && slot < end) {
+            return slot;
+        }
+        // 区间内没有空位，放入后由addRank记为乱序
+        return emptySlots.nextSetBit(0);
+    }
+    
+    /**
+     * 配置的排列顺序变化时按新顺序重建排序索引，O(capacity log n)，每次顺序变化只执行一次
+     */
+    private void syncOrder() {
+        TrashSortOrder current = TrashSortOrder.current();
+        if (current == order) return;
+        
+        order = current;
+        rankSlots.clear();
+        outOfOrder = false;
+        for (int slot = emptySlots.nextClearBit(0); slot < capacity; slot = emptySlots.nextClearBit(slot + 1)) {
+            addRank(slot, slotKeys[slot]);
+        }
+    }
+    
+    /**
+     * 加入排序索引，放入位置破坏顺序（前面有排序更大的或后面有排序更小的物品）时记为乱序
+     */
+    private void addRank(int slot, ItemKey key) {
+        if (order == TrashSortOrder.NONE) return;
+        long rank = order.rank(key.getItem());
+        slotRanks[slot] = rank;
+        if (!outOfOrder) {
+            Map.Entry<Long, IntSortedSet> lower = rankSlots.lowerEntry(rank);
+            Map.Entry<Long, IntSortedSet> higher = rankSlots.higherEntry(rank);
+            outOfOrder = (lower != null && lower.getValue().lastInt() > slot)
+                    || (higher != null && higher.getValue().firstInt() < slot);
+        }
+        rankSlots.computeIfAbsent(rank, k -> new IntRBTreeSet()).add(slot);
+    }
+    
+    private void removeRank(int slot) {
+        if (order == TrashSortOrder.NONE) return;
+        IntSortedSet slots = rankSlots.get(slotRanks[slot]);
+        if (slots != null && slots.remove(slot) && slots.isEmpty()) {
+            rankSlots.remove(slotRanks[slot]);
+        }
+    }
+    
+    /**
+     * 是否有物品不在排列顺序的位置上，只有整理命令（/bin sort）或清空会恢复
+     */
+    public boolean isOutOfOrder() {
+        return outOfOrder;
+    }
+    
+    /**
+     * 取出全部物品并清空垃圾箱，排列顺序更新为当前配置（整理命令使用）
+     */
+    public List<ItemStack> takeAll() {
+        List<ItemStack> stacks = new ArrayList<>(usedSlots);
+        for (int slot = 0; slot < capacity; slot++) {
+            if (!items.get(slot).isEmpty()) {
+                stacks.add(items.get(slot));
+            }
+        }
+        clearContent();
+        syncOrder();
+        return stacks;
     }
     
     /**
-     * 获取相同物品的槽位列表（用于UI优化）
+     * 从第一个槽位开始依次放入已排好序的物品（整理命令使用）
+     * @param stacks 已排序的物品
+     * @param from 起始下标
+     * @return 下一个未放入物品的下标
      */
-    public List<Integer> getSameItemSlots(ItemStack item) {
-        if (item.isEmpty()) return Collections.emptyList();
-        String key = CleanupManager.generateComplexItemKey(item);
-        return itemTypeSlots.getOrDefault(key, Collections.emptyList());
+    public int fillInOrder(List<ItemStack> stacks, int from) {
+        int index = from;
+        for (int slot = 0; slot < capacity && index < stacks.size(); slot++, index++) {
+            ItemStack stack = stacks.get(index);
+            placeInSlot(slot, stack, ItemKey.of(stack));
+        }
+        return index;
     }
     
     /**
@@ -214,9 +471,67 @@ public class TrashBox implements Container {
     public void clearContent() {
         items.clear();
         initializeIndex();
+        markAllDirty();
+        unsavedSlots.set(0, capacity);
         setChanged();
     }
 
+    /**
+     * 标记槽位需要同步给观看者并写入持久化日志
+     */
+    private void markDirty(int slot) {
+        dirtySlots.set(slot);
+        unsavedSlots.set(slot);
+    }
+
+    /**
+     * 标记全部槽位需要同步
+     */
+    private void markAllDirty() {
+        dirtySlots.set(0, capacity);
+    }
+    
+    /**
+     * 标记槽位需要重新同步给观看者（不写入持久化日志），用于校正客户端的本地预测
+     */
+    public void markForSync(int slot) {
+        if (isValidSlot(slot)) {
+            dirtySlots.set(slot);
+        }
+    }
+    
+    /**
+     * 标记客户端放入或收集该物品时可能预测修改的槽位：同类物品的全部槽位与第一个空槽位
+     */
+    public void markForSync(ItemStack stack) {
+        if (stack.isEmpty()) return;
+        IntSortedSet sameTypeSlots = itemTypeSlots.get(ItemKey.of(stack));
+        if (sameTypeSlots != null) {
+            IntIterator iterator = sameTypeSlots.iterator();
+            while (iterator.hasNext()) {
+                dirtySlots.set(iterator.nextInt());
+            }
+        }
+        int emptySlot = emptySlots.nextSetBit(0);
+        if (emptySlot >= 0) {
+            dirtySlots.set(emptySlot);
+        }
+    }
+    
+    /**
+     * 自上次同步后变化的槽位（TrashBoxViewers读取后清空）
+     */
+    public BitSet getDirtySlots() {
+        return dirtySlots;
+    }
+    
+    /**
+     * 自上次写入持久化日志后变化的槽位（TrashInventory读取后清空）
+     */
+    public BitSet getUnsavedSlots() {
+        return unsavedSlots;
+    }
+
     /**
      * 获取容器大小 - Container接口方法
      */
@@ -230,7 +545,7 @@ public class TrashBox implements Container {
      */
     @Override
     public boolean isEmpty() {
-        return items.stream().allMatch(ItemStack::isEmpty);
+        return usedSlots == 0;
     }
 
     /**
@@ -238,7 +553,7 @@ public class TrashBox implements Container {
      */
     @Override
     public void setChanged() {
-        // 垃圾箱是临时容器，不需要持久化，这里留空即可
+        // 变化已按槽位记录在脏位图中，持久化由TrashInventory异步批量写入，这里留空即可
     }
 
     /**
@@ -250,6 +565,13 @@ public class TrashBox implements Container {
         return true;
     }
 
+    /**
+     * 获取垃圾箱编号（从1开始）
+     */
+    public int getBoxNumber() {
+        return boxNumber;
+    }
+
     /**
      * 获取垃圾箱所在维度ID
      */
@@ -268,7 +590,7 @@ public class TrashBox implements Container {
      * 获取当前物品数量（非空槽位）
      */
     public int getItemCount() {
-        return (int) items.stream().filter(item -> !item.isEmpty()).count();
+        return usedSlots;
     }
 
     @Override
@@ -0,0 +1,326 @@
+package com.klnon.recyclingservice.content.trashbox.core;
+
+import com.klnon.recyclingservice.Recyclingservice;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import net.minecraft.core.HolderLookup;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.storage.LevelResource;
+import org.slf4j.Logger;
+
+import java.io.*;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 垃圾箱持久化存储 - 每个维度一个只追加的槽位变化日志
+ * 文件位于存档的data/recyclingservice/trash目录，每条记录是一个NBT复合标签（箱号、槽位、数量、物品）
+ * 写入都在单独的写入线程中按提交顺序执行，服务端线程只负责复制变化的物品
+ * 读取时该维度没有排队的写入就在服务端线程直接读文件，否则排在写入之后由写入线程读取
+ * 写入线程为每个维度保留一份最新槽位的镜像，日志记录远多于镜像时用镜像重写文件（压缩）
+ */
+public class TrashBoxStorage {
+
+    /**
+     * 一个槽位的内容，stack为空表示槽位被清空
+     */
+    public record StoredSlot(int boxNumber, int slot, ItemStack stack) {}
+
+    private static final Logger LOGGER = Recyclingservice.LOGGER;
+    private static final String EXTENSION = ".log";
+    // 等待写入线程读取超过该时间时记录警告
+    private static final long LOAD_WARN_SECONDS = 2;
+
+    private final Path directory;
+    private final HolderLookup.Provider registries;
+    private final int compactThreshold;
+    private final ExecutorService writer;
+    // 维度ID -> 变化日志，只在写入线程访问
+    private final Map<ResourceLocation, DimensionLog> logs = new HashMap<>();
+    // 维度ID -> 已提交但未完成的写入数；提交只在服务端线程，完成时由写入线程递减
+    private final Map<ResourceLocation, AtomicInteger> pendingWrites = new ConcurrentHashMap<>();
+    // 未完成的清空任务数，清空会删除所有维度的日志
+    private final AtomicInteger pendingClears = new AtomicInteger();
+
+    public TrashBoxStorage(MinecraftServer server, int compactThreshold) {
+        this.directory = server.getWorldPath(LevelResource.ROOT)
+                .resolve("data").resolve(Recyclingservice.MODID).resolve("trash");
+        this.registries = server.registryAccess();
+        this.compactThreshold = compactThreshold;
+        this.writer = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "RecyclingService-TrashStorage");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 读取维度的全部非空槽位（首次访问该维度时调用，只在服务端线程）
+     * 该维度没有未完成的写入时直接读文件，不必排在其他维度的写入之后；
+     * 否则交给写入线程排在已提交的写入之后读取，因此总能读到最新内容
+     */
+    public List<StoredSlot> load(ResourceLocation dimensionId) {
+        if (pendingClears.get() == 0 && pendingCount(dimensionId) == 0) {
+            try {
+                return new DimensionLog(logFile(dimensionId)).read();
+            } catch (IOException e) {
+                LOGGER.error("Failed to load trash boxes of {}: {}", dimensionId, e.getMessage());
+                return List.of();
+            }
+        }
+
+        Future<List<StoredSlot>> future = writer.submit(() -> log(dimensionId).load());
+        try {
+            try {
+                return future.get(LOAD_WARN_SECONDS, TimeUnit.SECONDS);
+            } catch (TimeoutException e) {
+                // 不能返回不完整的内容，记录后继续等待
+                LOGGER.warn("Loading trash boxes of {} waited over {}s behind queued writes", dimensionId, LOAD_WARN_SECONDS);
+                return future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return List.of();
+        } catch (ExecutionException e) {
+            LOGGER.error("Failed to load trash boxes of {}: {}", dimensionId, e.getCause().getMessage());
+            return List.of();
+        }
+    }
+
+    /**
+     * 提交槽位变化，由写入线程追加到日志
+     * @param changes 变化槽位的物品副本，提交后不能再修改
+     */
+    public void write(ResourceLocation dimensionId, List<StoredSlot> changes) {
+        AtomicInteger pending = pendingWrites.computeIfAbsent(dimensionId, id -> new AtomicInteger());
+        pending.incrementAndGet();
+        writer.execute(() -> {
+            try {
+                log(dimensionId).append(changes);
+            } catch (IOException e) {
+                LOGGER.error("Failed to save trash boxes of {}: {}", dimensionId, e.getMessage());
+            } finally {
+                pending.decrementAndGet();
+            }
+        });
+    }
+
+    /**
+     * 删除所有维度的日志（清理时清空垃圾箱）
+     */
+    public void clearAll() {
+        pendingClears.incrementAndGet();
+        writer.execute(() -> {
+            try {
+                logs.values().forEach(DimensionLog::close);
+                logs.clear();
+                if (!Files.isDirectory(directory)) return;
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+                    for (Path file : files) {
+                        Files.deleteIfExists(file);
+                    }
+                } catch (IOException e) {
+                    LOGGER.error("Failed to clear trash box logs: {}", e.getMessage());
+                }
+            } finally {
+                pendingClears.decrementAndGet();
+            }
+        });
+    }
+
+    /**
+     * 等待已提交的写入完成后关闭（服务器关闭时调用）
+     */
+    public void close() {
+        writer.execute(() -> {
+            logs.values().forEach(DimensionLog::close);
+            logs.clear();
+        });
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(10, TimeUnit.SECONDS)) {
+                LOGGER.warn("Trash box storage did not finish writing in time");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // === 内部方法 ===
+
+    private int pendingCount(ResourceLocation dimensionId) {
+        AtomicInteger pending = pendingWrites.get(dimensionId);
+        return pending == null ? 0 : pending.get();
+    }
+
+    private Path logFile(ResourceLocation dimensionId) {
+        return directory.resolve(dimensionId.getNamespace() + "." + dimensionId.getPath().replace('/', '.') + EXTENSION);
+    }
+
+    // 以下只在写入线程调用
+
+    private DimensionLog log(ResourceLocation dimensionId) {
+        return logs.computeIfAbsent(dimensionId, id -> new DimensionLog(logFile(id)));
+    }
+
+    private CompoundTag encode(StoredSlot change) {
+        CompoundTag record = new CompoundTag();
+        record.putInt("box", change.boxNumber());
+        record.putInt("slot", change.slot());
+        if (!change.stack().isEmpty()) {
+            // 物品编解码器限制数量不超过99，数量单独保存
+            record.putInt("count", change.stack().getCount());
+            record.put("item", change.stack().copyWithCount(1).save(registries));
+        }
+        return record;
+    }
+
+    private ItemStack decode(CompoundTag record) {
+        return ItemStack.parse(registries, record.getCompound("item"))
+                .map(stack -> stack.copyWithCount(record.getInt("count")))
+                .orElse(ItemStack.EMPTY);
+    }
+
+    /**
+     * 单个维度的变化日志与最新槽位镜像
+     */
+    private final class DimensionLog {
+        private final Path file;
+        // 箱号<<16|槽位 -> 该槽位最新的记录，空槽位不保留
+        private final Int2ObjectOpenHashMap<CompoundTag> mirror = new Int2ObjectOpenHashMap<>();
+        private DataOutputStream out;
+        private boolean loaded = false;
+        private int records = 0;
+
+        DimensionLog(Path file) {
+            this.file = file;
+        }
+
+        List<StoredSlot> load() throws IOException {
+            ensureLoaded();
+            return slots();
+        }
+
+        /**
+         * 只读取文件不做压缩，用于服务端线程在没有排队写入时直接读取
+         */
+        List<StoredSlot> read() throws IOException {
+            if (Files.exists(file)) {
+                readFile();
+            }
+            return slots();
+        }
+
+        private List<StoredSlot> slots() {
+            List<StoredSlot> slots = new ArrayList<>(mirror.size());
+            for (CompoundTag record : mirror.values()) {
+                ItemStack stack = decode(record);
+                if (!stack.isEmpty()) {
+                    slots.add(new StoredSlot(record.getInt("box"), record.getInt("slot"), stack));
+                }
+            }
+            return slots;
+        }
+
+        void append(List<StoredSlot> changes) throws IOException {
+            ensureLoaded();
+            DataOutputStream output = output();
+            for (StoredSlot change : changes) {
+                CompoundTag record = encode(change);
+                NbtIo.write(record, output);
+                apply(record);
+                records++;
+            }
+            output.flush();
+
+            if (records > compactThreshold && records > mirror.size() * 2) {
+                compact();
+            }
+        }
+
+        void close() {
+            if (out == null) return;
+            try {
+                out.close();
+            } catch (IOException e) {
+                LOGGER.error("Failed to close trash box log {}: {}", file, e.getMessage());
+            }
+            out = null;
+        }
+
+        private void ensureLoaded() throws IOException {
+            if (loaded) return;
+            loaded = true;
+            if (!Files.exists(file)) return;
+
+            boolean damaged = !readFile();
+            if (damaged || records > mirror.size()) {
+                compact();
+            }
+        }
+
+        /**
+         * 把日志记录读入镜像
+         * @return 文件是否完整
+         */
+        private boolean readFile() throws IOException {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+                while (in.available() > 0) {
+                    apply(NbtIo.read(in));
+                    records++;
+                }
+                return true;
+            } catch (IOException e) {
+                // 崩溃时最后一条记录可能不完整，保留已读出的部分
+                LOGGER.warn("Trash box log {} is truncated, keeping {} readable records", file, records);
+                return false;
+            }
+        }
+
+        private void apply(CompoundTag record) {
+            int key = record.getInt("box") << 16 | record.getInt("slot");
+            if (record.contains("item")) {
+                mirror.put(key, record);
+            } else {
+                mirror.remove(key);
+            }
+        }
+
+        /**
+         * 用镜像重写日志，先写临时文件再原子替换，中途崩溃不会丢失旧日志
+         */
+        private void compact() throws IOException {
+            close();
+            if (mirror.isEmpty()) {
+                Files.deleteIfExists(file);
+            } else {
+                Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+                try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                    for (CompoundTag record : mirror.values()) {
+                        NbtIo.write(record, output);
+                    }
+                }
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            records = mirror.size();
+        }
+
+        private DataOutputStream output() throws IOException {
+            if (out == null) {
+                Files.createDirectories(directory);
+                out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND)));
+            }
+            return out;
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package com.klnon.recyclingservice.content.trashbox.core;
 
+import com.klnon.recyclingservice.content.cleanup.entity.ItemKey;
+import com.klnon.recyclingservice.content.trashbox.core.TrashBoxStorage.StoredSlot;
 import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.MinecraftServer;
 import net.minecraft.world.item.ItemStack;
 import com.klnon.recyclingservice.Config;
 
@@ -12,15 +15,25 @@ import java.util.concurrent.ConcurrentHashMap;
  * 职责：
  * - 管理各维度的垃圾箱集合
  * - 创建和获取指定垃圾箱
- * - 处理物品分配到垃圾箱
+ * - 处理物品分配到垃圾箱（依次溢出到后续垃圾箱，最多max_boxes个）
+ * - 统计放不下的溢出数量
+ * - 启用持久化时首次访问维度才从日志恢复，并按周期把变化的槽位交给TrashBoxStorage异步写入
+ * 只在服务端线程访问；其他线程产生的待入箱物品先进入DimensionEntityCache的无锁队列，
+ * 在ServerTickEvent.Post、观看者同步之前由服务端线程批量放入
  */
 public class TrashInventory {
     
     // 维度ID -> 垃圾箱列表
     private final Map<ResourceLocation, List<TrashBox>> dimensionBoxes;
+    // 维度ID -> 本轮放不下的物品数量
+    private final Map<ResourceLocation, Integer> overflowCounts;
+    // 持久化存储，未启用时为null
+    private TrashBoxStorage storage;
+    private int ticksSinceSave = 0;
     
     public TrashInventory() {
         this.dimensionBoxes = new ConcurrentHashMap<>();
+        this.overflowCounts = new ConcurrentHashMap<>();
     }
     
     /**
@@ -31,7 +44,7 @@ public class TrashInventory {
             return null;
         }
         
-        List<TrashBox> boxes = dimensionBoxes.computeIfAbsent(dimensionId, k -> new ArrayList<>());
+        List<TrashBox> boxes = boxesOf(dimensionId);
         
         // 当目标打开的垃圾箱编号大于当前垃圾箱总数才新建
         while (boxes.size() < boxNumber) {
@@ -45,27 +58,231 @@ public class TrashInventory {
     
     /**
      * 为指定维度添加物品到垃圾箱
+     * 先合并到所有已有垃圾箱的同类槽位，再找第一个有空位的垃圾箱，全满时按需新建，直到max_boxes
+     * 每个垃圾箱的同类槽位与空槽位查询都是索引O(1)，垃圾箱数量上限很小，逐个检查即可
+     * @param item 要添加的物品，会被就地扣减
+     * @return 放不下的剩余部分，全部放入时为ItemStack.EMPTY
      */
-    public void addItemToDimension(ResourceLocation dimensionId, ItemStack item) {
-        if (item.isEmpty()) return;
-        TrashBox trashBox = getOrCreateTrashBox(dimensionId, 1);
-        if (trashBox != null) {
-            trashBox.addItem(item);
+    public ItemStack addItemToDimension(ResourceLocation dimensionId, ItemStack item) {
+        if (item.isEmpty()) return ItemStack.EMPTY;
+        
+        List<TrashBox> boxes = boxesOf(dimensionId);
+        
+        // 1. 合并到已有的同类槽位
+        for (TrashBox box : boxes) {
+            if (box.tryMergeToExisting(item)) {
+                return ItemStack.EMPTY;
+            }
+        }
+        
+        // 2. 放入第一个有空位的垃圾箱
+        for (TrashBox box : boxes) {
+            if (box.hasEmptySlot() && box.addItem(item)) {
+                return ItemStack.EMPTY;
+            }
+        }
+        
+        // 3. 已有垃圾箱全满，新建下一个
+        int maxBoxes = Config.GAMEPLAY.maxBoxesPerDimension.get();
+        while (boxes.size() < maxBoxes) {
+            TrashBox newBox = getOrCreateTrashBox(dimensionId, boxes.size() + 1);
+            if (newBox != null && newBox.addItem(item)) {
+                return ItemStack.EMPTY;
+            }
+        }
+        
+        // 4. 所有垃圾箱都满了，记录溢出
+        overflowCounts.merge(dimensionId, item.getCount(), Integer::sum);
+        return item;
+    }
+    
+    /**
+     * 批量添加物品到指定维度的垃圾箱
+     * 先按物品键分组并合计数量，再按合并、空槽位、新建垃圾箱的顺序一次性放入
+     * 耗时与物品种类数成正比，而不是与物品堆数量成正比
+     * @param stacks 要添加的物品，不会被修改
+     * @return 所有垃圾箱都放不下的剩余部分（按物品键合并）
+     */
+    public List<ItemStack> addAll(ResourceLocation dimensionId, List<ItemStack> stacks) {
+        // 1. 按物品键分组合计
+        Map<ItemKey, ItemStack> grouped = new LinkedHashMap<>();
+        for (ItemStack stack : stacks) {
+            if (stack.isEmpty()) continue;
+            ItemKey key = ItemKey.of(stack);
+            ItemStack sum = grouped.get(key);
+            if (sum == null) {
+                grouped.put(key, stack.copy());
+            } else {
+                sum.grow(stack.getCount());
+            }
+        }
+        if (grouped.isEmpty()) return new ArrayList<>();
+        List<ItemStack> pending = new ArrayList<>(grouped.values());
+        
+        List<TrashBox> boxes = boxesOf(dimensionId);
+        
+        // 2. 合并到所有已有垃圾箱的同类槽位
+        for (TrashBox box : boxes) {
+            box.mergeAll(pending);
+        }
+        
+        // 3. 依次填充有空位的垃圾箱，不够时新建
+        int maxBoxes = Config.GAMEPLAY.maxBoxesPerDimension.get();
+        for (int i = 0; i < maxBoxes; i++) {
+            TrashBox box = i < boxes.size() ? boxes.get(i) : getOrCreateTrashBox(dimensionId, i + 1);
+            if (box == null) break;
+            if (box.hasEmptySlot()) {
+                box.fillEmptySlots(pending);
+            }
+            if (pending.stream().allMatch(ItemStack::isEmpty)) {
+                return new ArrayList<>();
+            }
         }
+        
+        // 4. 记录溢出
+        List<ItemStack> leftovers = new ArrayList<>();
+        for (ItemStack stack : pending) {
+            if (!stack.isEmpty()) {
+                leftovers.add(stack);
+                overflowCounts.merge(dimensionId, stack.getCount(), Integer::sum);
+            }
+        }
+        return leftovers;
+    }
+    
+    /**
+     * 获取指定维度本轮的溢出物品数量
+     */
+    public int getOverflowCount(ResourceLocation dimensionId) {
+        return overflowCounts.getOrDefault(dimensionId, 0);
+    }
+    
+    /**
+     * 获取所有维度本轮的溢出物品数量
+     */
+    public Map<ResourceLocation, Integer> getOverflowCounts() {
+        return new HashMap<>(overflowCounts);
     }
     
     /**
      * 获取指定维度的所有垃圾箱
      */
     public List<TrashBox> getDimensionTrashBoxes(ResourceLocation dimensionId) {
-        List<TrashBox> boxes = dimensionBoxes.get(dimensionId);
-        return boxes != null ? boxes : new ArrayList<>();
+        return boxesOf(dimensionId);
     }
 
+    /**
+     * 按当前配置的排列顺序整理维度内的所有垃圾箱
+     * 物品跨垃圾箱整体排序后从1号垃圾箱依次放回，普通物品在前，护甲、武器排在最后
+     * @return 整理的物品堆数量
+     */
+    public int sortDimension(ResourceLocation dimensionId) {
+        List<TrashBox> boxes = boxesOf(dimensionId);
+        List<ItemStack> stacks = new ArrayList<>();
+        for (TrashBox box : boxes) {
+            stacks.addAll(box.takeAll());
+        }
+        
+        TrashSortOrder order = TrashSortOrder.current();
+        if (order != TrashSortOrder.NONE) {
+            stacks.sort(order.comparator());
+        }
+        int index = 0;
+        for (TrashBox box : boxes) {
+            index = box.fillInOrder(stacks, index);
+        }
+        return stacks.size();
+    }
+    
     /**
      * 删除所有垃圾箱
      */
     public void clearAll() {
         dimensionBoxes.clear();
+        overflowCounts.clear();
+        if (storage != null) {
+            storage.clearAll();
+        }
+    }
+    
+    // === 持久化 ===
+    
+    /**
+     * 服务器启动时调用：丢弃上一个存档的垃圾箱，按配置打开持久化存储
+     */
+    public void openStorage(MinecraftServer server) {
+        closeStorage();
+        dimensionBoxes.clear();
+        overflowCounts.clear();
+        if (Config.TECHNICAL.enableTrashPersistence.get()) {
+            storage = new TrashBoxStorage(server, Config.TECHNICAL.trashCompactThreshold.get());
+        }
+    }
+    
+    /**
+     * 服务器关闭时调用：提交剩余变化并等待写入完成
+     */
+    public void closeStorage() {
+        if (storage == null) return;
+        saveChanges();
+        storage.close();
+        storage = null;
+    }
+    
+    /**
+     * 每tick调用，按配置的周期提交变化的槽位
+     */
+    public void tickStorage() {
+        if (storage == null || ++ticksSinceSave < Config.TECHNICAL.trashSaveIntervalTicks.get()) return;
+        ticksSinceSave = 0;
+        saveChanges();
+    }
+    
+    /**
+     * 收集各垃圾箱变化的槽位副本并提交给写入线程，服务端线程只做复制
+     */
+    private void saveChanges() {
+        for (Map.Entry<ResourceLocation, List<TrashBox>> entry : dimensionBoxes.entrySet()) {
+            List<StoredSlot> changes = null;
+            for (TrashBox box : entry.getValue()) {
+                BitSet unsaved = box.getUnsavedSlots();
+                for (int slot = unsaved.nextSetBit(0); slot >= 0; slot = unsaved.nextSetBit(slot + 1)) {
+                    if (changes == null) changes = new ArrayList<>();
+                    changes.add(new StoredSlot(box.getBoxNumber(), slot, box.getItem(slot).copy()));
+                }
+                unsaved.clear();
+            }
+            if (changes != null) {
+                storage.write(entry.getKey(), changes);
+            }
+        }
+    }
+    
+    /**
+     * 获取维度的垃圾箱列表，首次访问时从持久化日志恢复
+     */
+    private List<TrashBox> boxesOf(ResourceLocation dimensionId) {
+        List<TrashBox> boxes = dimensionBoxes.get(dimensionId);
+        if (boxes == null) {
+            boxes = new ArrayList<>();
+            dimensionBoxes.put(dimensionId, boxes);
+            if (storage != null) {
+                restore(dimensionId, boxes);
+            }
+        }
+        return boxes;
+    }
+    
+    private void restore(ResourceLocation dimensionId, List<TrashBox> boxes) {
+        for (StoredSlot stored : storage.load(dimensionId)) {
+            TrashBox box = getOrCreateTrashBox(dimensionId, stored.boxNumber());
+            // 配置缩小后超出箱数或行数的部分不再恢复
+            if (box == null || stored.slot() >= box.getContainerSize()) continue;
+            box.setItem(stored.slot(), stored.stack());
+        }
+        // 恢复出的内容已在日志中，不需要再写回
+        for (TrashBox box : boxes) {
+            box.getUnsavedSlots().clear();
+        }
     }
 }
\ No newline at end of file
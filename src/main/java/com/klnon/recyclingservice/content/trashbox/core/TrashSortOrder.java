@@ -0,0 +1,83 @@
+package com.klnon.recyclingservice.content.trashbox.core;
+
+import com.klnon.recyclingservice.Config;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.item.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 垃圾箱排列顺序 - 把物品映射为可比较的long排序值
+ * CATEGORY：普通物品 -> 工具 -> 护甲 -> 武器，同类按注册名排序
+ * REGISTRY：只按注册名排序
+ * NONE：不排序，从第一个空槽位开始放入
+ */
+public enum TrashSortOrder {
+    CATEGORY,
+    REGISTRY,
+    NONE;
+
+    // 物品 -> 按注册名字母顺序的序号，注册表在服务器启动后不再变化，首次使用时建立
+    private static Reference2IntOpenHashMap<Item> registryIndex;
+
+    /**
+     * 当前配置的排列顺序
+     */
+    public static TrashSortOrder current() {
+        return switch (Config.GAMEPLAY.sortOrder.get()) {
+            case "category" -> CATEGORY;
+            case "registry" -> REGISTRY;
+            default -> NONE;
+        };
+    }
+
+    /**
+     * 物品的排序值，越小越靠前
+     */
+    public long rank(Item item) {
+        long id = registryIndex(item);
+        return this == CATEGORY ? (long) category(item) << 32 | id : id;
+    }
+
+    /**
+     * 整理时使用的完整比较器：排序值，然后数量从多到少
+     */
+    public Comparator<ItemStack> comparator() {
+        return Comparator.<ItemStack>comparingLong(stack -> rank(stack.getItem()))
+                .thenComparing(Comparator.comparingInt(ItemStack::getCount).reversed());
+    }
+
+    // === 内部方法 ===
+
+    private static int category(Item item) {
+        if (item instanceof SwordItem || item instanceof BowItem || item instanceof CrossbowItem
+                || item instanceof TridentItem || item instanceof MaceItem) {
+            return 3;
+        }
+        if (item instanceof ArmorItem || item instanceof ElytraItem || item instanceof ShieldItem) {
+            return 2;
+        }
+        if (item instanceof DiggerItem || item instanceof ShearsItem || item instanceof FishingRodItem
+                || item instanceof FlintAndSteelItem || item instanceof BrushItem) {
+            return 1;
+        }
+        return 0;
+    }
+
+    private static int registryIndex(Item item) {
+        if (registryIndex == null) {
+            List<ResourceLocation> keys = new ArrayList<>(BuiltInRegistries.ITEM.keySet());
+            keys.sort(null);
+            Reference2IntOpenHashMap<Item> index = new Reference2IntOpenHashMap<>(keys.size());
+            for (int i = 0; i < keys.size(); i++) {
+                index.put(BuiltInRegistries.ITEM.get(keys.get(i)), i);
+            }
+            registryIndex = index;
+        }
+        return registryIndex.getInt(item);
+    }
+}
@@ -1,5 +1,9 @@
 package com.klnon.recyclingservice.foundation.command;
 
+import com.klnon.recyclingservice.content.chunk.PerformanceMonitor;
+import com.klnon.recyclingservice.content.cleanup.CleanupManager;
+import com.klnon.recyclingservice.content.cleanup.entity.DimensionEntityCache;
+import com.klnon.recyclingservice.content.chunk.TickTimeWindow;
 import com.klnon.recyclingservice.content.trashbox.TrashBoxManager;
 import com.klnon.recyclingservice.content.trashbox.core.TrashBox;
 import com.klnon.recyclingservice.content.trashbox.TrashBoxMenu;
@@ -53,6 +57,14 @@ public class BinCommand {
                 .then(Commands.literal("cleanup")
                         .requires(ADMIN_PERMISSION) // 使用常量
                         .executes(BinCommand::manualCleanup))
+                .then(Commands.literal("sort")
+                        .requires(ADMIN_PERMISSION)
+                        .then(Commands.argument("dimension", ResourceLocationArgument.id())
+                                .suggests(BinCommand::suggestDimensions)
+                                .executes(BinCommand::sortTrashBoxes)))
+                .then(Commands.literal("perf")
+                        .requires(ADMIN_PERMISSION)
+                        .executes(BinCommand::showPerformance))
                 .then(Commands.literal("tickets")
                         .requires(ADMIN_PERMISSION) // 使用常量
                         .then(Commands.argument("x", IntegerArgumentType.integer())
@@ -184,6 +196,58 @@ public class BinCommand {
             });
     }
     
+    /**
+     * 按配置的排列顺序整理指定维度的垃圾箱
+     */
+    private static int sortTrashBoxes(CommandContext<CommandSourceStack> context) {
+        CommandSourceStack source = context.getSource();
+        ServerPlayer player = (ServerPlayer) source.getEntity();
+        
+        return ErrorHelper.handleCommandOperation(player, "整理垃圾箱",
+            () -> {
+                ResourceLocation dimensionId = ResourceLocationArgument.getId(context, "dimension");
+                int count = TrashBoxManager.sortDimension(dimensionId);
+                String message = Config.MESSAGE.sortCompleteMessage.get()
+                        .replace("{count}", String.valueOf(count))
+                        .replace("{dimension}", dimensionId.toString());
+                source.sendSuccess(() -> Component.literal(message), true);
+                return true;
+            });
+    }
+    
+    /**
+     * 显示服务器与各维度的tick耗时分位数 - 硬编码
+     */
+    private static int showPerformance(CommandContext<CommandSourceStack> context) {
+        CommandSourceStack source = context.getSource();
+
+        source.sendSuccess(() -> Component.literal("§6=== Tick Time (last " + Config.TECHNICAL.perfWindowTicks.get() + " ticks) ==="), false);
+        source.sendSuccess(() -> Component.literal(formatStats("Server", PerformanceMonitor.getServerStats())), false);
+        PerformanceMonitor.getDimensionStats().forEach((dimension, stats) ->
+                source.sendSuccess(() -> Component.literal(formatStats(dimension.toString(), stats)), false));
+
+        // 上报缓存在最近一次tick结束刷入时的变动，以及累计变动
+        source.sendSuccess(() -> Component.literal("§6=== Report Churn (last flush / total) ==="), false);
+        for (ServerLevel level : source.getServer().getAllLevels()) {
+            DimensionEntityCache cache = CleanupManager.getEntityCache(level);
+            if (cache.getTotalReported() == 0 && cache.getTotalRemoved() == 0) continue;
+            String churn = String.format("§e%s §a+%d §c-%d §7| §a+%d §c-%d §7(%d reported)",
+                    level.dimension().location(), cache.getLastFlushReported(), cache.getLastFlushRemoved(),
+                    cache.getTotalReported(), cache.getTotalRemoved(), cache.size());
+            source.sendSuccess(() -> Component.literal(churn), false);
+        }
+
+        return 1;
+    }
+
+    private static String formatStats(String name, TickTimeWindow.Stats stats) {
+        if (stats.samples() == 0) {
+            return "§e" + name + " §7No samples yet";
+        }
+        return String.format("§e%s §fp50 %.2f §7| §fp95 %.2f §7| §fp99 %.2f §7| §cmax %.2f §7ms (%d)",
+                name, stats.p50(), stats.p95(), stats.p99(), stats.max(), stats.samples());
+    }
+    
     /**
      * 显示区块tickets信息 - 硬编码
      */
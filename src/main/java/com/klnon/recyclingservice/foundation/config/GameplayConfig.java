@@ -1,5 +1,6 @@
 package com.klnon.recyclingservice.foundation.config;
 
+import com.klnon.recyclingservice.foundation.utility.RegistryFilter;
 import net.neoforged.neoforge.common.ModConfigSpec;
 import java.util.Arrays;
 import java.util.List;
@@ -13,6 +14,7 @@ public class GameplayConfig {
     public final ModConfigSpec.IntValue autoCleanTime;
     public final ModConfigSpec.BooleanValue showCleanupWarnings;
     public final ModConfigSpec.IntValue warningCountdownStart;
+    public final ModConfigSpec.IntValue reportAgeSeconds;
     
     // === 垃圾箱设置 ===
     public final ModConfigSpec.IntValue trashBoxRows;
@@ -20,6 +22,7 @@ public class GameplayConfig {
     public final ModConfigSpec.IntValue maxBoxesPerDimension;
     public final ModConfigSpec.ConfigValue<List<? extends String>> dimensionTrashAllowPutIn;
     public final ModConfigSpec.BooleanValue dimensionTrashCrossAccess;
+    public final ModConfigSpec.ConfigValue<String> sortOrder;
     
     // === 物品过滤设置 ===
     public final ModConfigSpec.ConfigValue<String> cleanMode;
@@ -50,6 +53,9 @@ public class GameplayConfig {
         warningCountdownStart = builder
                 .comment("Start countdown warnings at remaining seconds")
                 .defineInRange("countdown_start", 15, 0, 300);
+        reportAgeSeconds = builder
+                .comment("Entities must exist this many seconds before they are reported for cleanup")
+                .defineInRange("report_age_seconds", 10, 1, 3600);
         builder.pop();
         
         // 垃圾箱
@@ -71,6 +77,9 @@ public class GameplayConfig {
         dimensionTrashCrossAccess = builder
                 .comment("Allow cross-dimension trash box access")
                 .define("cross_access", true);
+        sortOrder = builder
+                .comment("Trash box layout: category (normal items, tools, armor, weapons, each by registry name), registry (registry name only) or none (first empty slot)")
+                .defineInList("sort_order", "category", Arrays.asList("category", "registry", "none"));
         builder.pop();
         
         // 物品过滤
@@ -79,23 +88,23 @@ public class GameplayConfig {
                 .comment("Item cleaning mode: whitelist or blacklist")
                 .defineInList("mode", "whitelist", Arrays.asList("whitelist", "blacklist"));
         whitelist = builder
-                .comment("Items protected from cleaning")
+                .comment("Items protected from cleaning (supports #tag and modid:* entries)")
                 .defineListAllowEmpty("whitelist",
                     List.of("minecraft:netherite_ingot", "minecraft:elytra"),
-                    () -> "", this::validateResourceLocation);
+                    () -> "", RegistryFilter::isValidEntry);
         blacklist = builder
-                .comment("Items to be cleaned")
+                .comment("Items to be cleaned (supports #tag and modid:* entries)")
                 .defineListAllowEmpty("blacklist", 
                     List.of("minecraft:cobblestone", "minecraft:dirt", "minecraft:gravel"),
-                    () -> "", this::validateResourceLocation);
+                    () -> "", RegistryFilter::isValidEntry);
         cleanProjectiles = builder
                 .comment("Enable projectile cleanup")
                 .define("clean_projectiles", true);
         projectileTypesToClean = builder
-                .comment("Projectile types to clean")
+                .comment("Projectile types to clean (supports #tag and modid:* entries)")
                 .defineListAllowEmpty("projectile_types",
                     List.of("minecraft:arrow", "minecraft:spectral_arrow", "minecraft:snowball"),
-                    () -> "", this::validateResourceLocation);
+                    () -> "", RegistryFilter::isValidEntry);
         protectCreateProcessingItems = builder
                 .comment("Protect items being processed by Create mod")
                 .define("protect_create_items", true);
@@ -11,8 +11,11 @@ public class MessageConfig {
     public final ModConfigSpec.ConfigValue<String> itemCountDisplayFormat;
     public final ModConfigSpec.ConfigValue<String> cleanupResultHeader;
     public final ModConfigSpec.ConfigValue<String> dimensionEntryFormat;
+    public final ModConfigSpec.ConfigValue<String> overflowEntryFormat;
     public final ModConfigSpec.ConfigValue<String> errorCleanupFailed;
     public final ModConfigSpec.ConfigValue<String> manualCleanupStart;
+    public final ModConfigSpec.ConfigValue<String> sortCompleteMessage;
+    public final ModConfigSpec.ConfigValue<String> cleanupProgressMessage;
     public final ModConfigSpec.ConfigValue<String> paymentErrorMessage;
     public final ModConfigSpec.ConfigValue<String> paymentSuccessMessage;
     public final ModConfigSpec.ConfigValue<String> warningMessage;
@@ -36,6 +39,10 @@ public class MessageConfig {
                 .comment("Format for each dimension entry in cleanup message. {name} {items} {entities}")
                 .define("dimension_entry_format", "§f{name}: §b{items} §fitems, §d{entities} §fentities");
         
+        overflowEntryFormat = builder
+                .comment("Appended to a dimension entry when its trash boxes were full. {overflow} = items left on the ground")
+                .define("overflow_entry_format", "§c ({overflow} items left on the ground, trash boxes full)");
+        
         errorCleanupFailed = builder
                 .comment("Message shown when cleanup fails")
                 .define("error_cleanup_failed", "§cCleanup failed");
@@ -44,6 +51,14 @@ public class MessageConfig {
                 .comment("Message shown when manual cleanup starts")
                 .define("manual_cleanup_start", "§6[Manual Cleanup] Starting cleanup...");
         
+        sortCompleteMessage = builder
+                .comment("Message shown after sorting a dimension's trash boxes. {count} = stacks sorted, {dimension} = dimension id")
+                .define("sort_complete_message", "§a[Trash Box] Sorted {count} stacks in {dimension}");
+        
+        cleanupProgressMessage = builder
+                .comment("Progress message shown while a cleanup spans multiple ticks. {percent} = completed percentage")
+                .define("cleanup_progress_message", "§7[Auto Clean] Cleaning up... {percent}%");
+        
         paymentErrorMessage = builder
                 .comment("Message shown when player doesn't have enough payment items. {cost} = required amount, {item} = item name")
                 .define("payment_error_message", "§cNeed {cost} {item} as postage!");
@@ -67,6 +82,8 @@ public class MessageConfig {
                         "§6=== Trash Box Command Help ===",
                         "§e/bin open <dimension> <box> §7- Open specific dimension trash box",
                         "§e/bin cleanup §7- Manually trigger cleanup",
+                        "§e/bin sort <dimension> §7- Sort the trash boxes of a dimension",
+                        "§e/bin perf §7- Show tick time percentiles and report churn per dimension",
                         "§e/bin tickets <x> <z> §7- Show chunk tickets info"
                     ),
                     () -> "",
@@ -1,6 +1,7 @@
 package com.klnon.recyclingservice.foundation.config;
 
 import net.neoforged.neoforge.common.ModConfigSpec;
+import java.util.Arrays;
 
 /**
  * 技术配置 - 包含区块管理、调试设置
@@ -19,6 +20,11 @@ public class TechnicalConfig {
     public final ModConfigSpec.DoubleValue msptThresholdSuspend;
     public final ModConfigSpec.DoubleValue msptThresholdRestore;
     public final ModConfigSpec.IntValue chunkOperationCount;
+    public final ModConfigSpec.IntValue profileSampleInterval;
+    public final ModConfigSpec.IntValue controlIntervalSeconds;
+    public final ModConfigSpec.DoubleValue controllerKp;
+    public final ModConfigSpec.DoubleValue controllerKi;
+    public final ModConfigSpec.IntValue perfWindowTicks;
     
     // 激进接管配置
     public final ModConfigSpec.BooleanValue enableAggressiveTakeover;
@@ -28,6 +34,16 @@ public class TechnicalConfig {
     public final ModConfigSpec.BooleanValue enableItemBasedFreezing;
     public final ModConfigSpec.IntValue itemFreezeHours;
     
+    // === 清理执行设置 ===
+    public final ModConfigSpec.ConfigValue<String> cleanupMode;
+    public final ModConfigSpec.IntValue sweepEntitiesPerTick;
+    public final ModConfigSpec.IntValue cleanupTickBudgetMicros;
+    
+    // === 垃圾箱持久化设置 ===
+    public final ModConfigSpec.BooleanValue enableTrashPersistence;
+    public final ModConfigSpec.IntValue trashSaveIntervalTicks;
+    public final ModConfigSpec.IntValue trashCompactThreshold;
+    
     // === 调试设置 ===
     public final ModConfigSpec.BooleanValue enableDebugLogs;
     
@@ -64,8 +80,23 @@ public class TechnicalConfig {
                 .comment("MSPT threshold for restoring chunks (restore when MSPT < threshold)")
                 .defineInRange("mspt_restore_threshold", 30.0, 20.0, 40.0);
         chunkOperationCount = builder
-                .comment("Number of chunks to suspend/restore per operation")
+                .comment("Maximum chunks to suspend/restore per control step")
                 .defineInRange("chunk_operation_count", 10, 1, 100);
+        profileSampleInterval = builder
+                .comment("Ticks between sampled ticks when profiling per-chunk tick cost for performance freezing")
+                .defineInRange("profile_sample_interval", 20, 1, 200);
+        controlIntervalSeconds = builder
+                .comment("Seconds between runs of the MSPT control loop for dynamic chunk management")
+                .defineInRange("control_interval_seconds", 5, 1, 60);
+        controllerKp = builder
+                .comment("Proportional gain: chunks frozen/restored per ms of MSPT outside the threshold band")
+                .defineInRange("controller_kp", 0.5, 0.0, 10.0);
+        controllerKi = builder
+                .comment("Integral gain: chunks per ms*second of accumulated MSPT error")
+                .defineInRange("controller_ki", 0.05, 0.0, 10.0);
+        perfWindowTicks = builder
+                .comment("Number of recent ticks kept per dimension for MSPT percentiles (control loop and /bin perf)")
+                .defineInRange("perf_window_ticks", 100, 20, 6000);
         builder.pop();
         
         // 激进接管
@@ -88,6 +119,32 @@ public class TechnicalConfig {
                 .defineInRange("freeze_hours", 1, 1, 24);
         builder.pop();
         
+        // 清理执行
+        builder.comment("Cleanup execution settings").push("cleanup");
+        cleanupMode = builder
+                .comment("Cleanup mode: signal (entities delete themselves on their next check) or sweep (server thread removes reported entities in bounded batches)")
+                .defineInList("mode", "signal", Arrays.asList("signal", "sweep"));
+        sweepEntitiesPerTick = builder
+                .comment("Maximum entities removed per tick in sweep mode")
+                .defineInRange("sweep_entities_per_tick", 2000, 100, 100000);
+        cleanupTickBudgetMicros = builder
+                .comment("Time budget per tick for the incremental cleanup job, in microseconds")
+                .defineInRange("tick_budget_micros", 2000, 100, 50000);
+        builder.pop();
+        
+        // 垃圾箱持久化
+        builder.comment("Trash box persistence settings").push("persistence");
+        enableTrashPersistence = builder
+                .comment("Save trash box contents under the world's data directory so they survive restarts")
+                .define("enable", false);
+        trashSaveIntervalTicks = builder
+                .comment("Ticks between handing changed trash slots to the background writer")
+                .defineInRange("save_interval_ticks", 20, 1, 1200);
+        trashCompactThreshold = builder
+                .comment("Rewrite a dimension's change log once it holds more than this many records")
+                .defineInRange("compact_threshold", 4096, 256, 1000000);
+        builder.pop();
+        
         // 调试
         builder.comment("Debug settings").push("debug");
         enableDebugLogs = builder
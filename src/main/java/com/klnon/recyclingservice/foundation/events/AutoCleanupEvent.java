@@ -3,6 +3,7 @@ package com.klnon.recyclingservice.foundation.events;
 import com.klnon.recyclingservice.content.chunk.ChunkManager;
 import com.klnon.recyclingservice.content.cleanup.CleanupManager;
 import com.klnon.recyclingservice.content.cleanup.CleanupService;
+import com.klnon.recyclingservice.content.trashbox.TrashBoxManager;
 import com.klnon.recyclingservice.foundation.utility.MessageHelper;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.network.chat.Component;
@@ -22,6 +23,18 @@ public class AutoCleanupEvent {
 
     @SubscribeEvent
     public static void onTick(ServerTickEvent.Post event) {
+        // 批量刷入本tick的实体上报/取消上报
+        CleanupManager.flushReports(event.getServer());
+        // 推进进行中的分片清理任务
+        if (cleaning) {
+            advanceCleanup(event.getServer());
+        }
+        // 合并广播本tick变化的垃圾箱槽位
+        TrashBoxManager.flushViewers();
+        // 按周期异步保存垃圾箱变化
+        TrashBoxManager.tickStorage();
+        // 动态区块管理的MSPT控制回路，独立于清理周期
+        ChunkManager.tickPerformanceControl(event.getServer());
 
         // 清理逻辑
         if (++ticks < Config.getCleanIntervalTicks()) {
@@ -43,30 +56,53 @@ public class AutoCleanupEvent {
         if (cleaning) return;
 
         cleaning = true;
-        //同步管理区块,物品过多监控
-        if (Config.TECHNICAL.enableDynamicChunkManagement.get())
-            ChunkManager.performPerformanceAdjustment(event.getServer());
+        //物品过多监控
         if (Config.TECHNICAL.enableItemBasedFreezing.get())
             ChunkManager.performItemMonitoring(event.getServer());
         doCleanup(event.getServer());
     }
 
     /**
-     * 执行清理
+     * 开始清理，任务在后续tick中按时间预算分片执行
      */
     private static void doCleanup(MinecraftServer server) {
         try {
-            CleanupService.CleanupResult result = CleanupManager.performAutoCleanup(server);
+            CleanupManager.startCleanup(server);
+        } catch (Exception e) {
+            MessageHelper.showActionBar(server, Config.MESSAGE.errorCleanupFailed.get(), MessageHelper.MessageType.ERROR.getColor());
+            cleaning = false;
+            return;
+        }
+        // 本tick先处理第一片
+        advanceCleanup(server);
+    }
+
+    /**
+     * 推进清理任务，完成后显示结果
+     */
+    private static void advanceCleanup(MinecraftServer server) {
+        try {
+            CleanupService.CleanupResult result = CleanupManager.tickCleanup();
+
+            if (result == null) {
+                // 任务跨越多个tick时每秒显示一次进度
+                int jobTicks = CleanupManager.getCleanupTicks();
+                if (jobTicks > 0 && jobTicks % 20 == 0) {
+                    String message = MessageHelper.getCleanupProgressMessage(CleanupManager.getCleanupProgress());
+                    MessageHelper.showActionBar(server, message, MessageHelper.MessageType.DEFAULT.getColor());
+                }
+                return;
+            }
 
             // 如果有清理结果才显示消息
             if (result.totalItemsCleaned() > 0 || result.totalProjectilesCleaned() > 0) {
                 Component message = MessageHelper.getDetailedCleanupMessage(result.dimensionStats());
                 MessageHelper.sendChatMessage(server, message);
             }
+            cleaning = false;
 
         } catch (Exception e) {
             MessageHelper.showActionBar(server, Config.MESSAGE.errorCleanupFailed.get(), MessageHelper.MessageType.ERROR.getColor());
-        } finally {
             cleaning = false;
         }
     }
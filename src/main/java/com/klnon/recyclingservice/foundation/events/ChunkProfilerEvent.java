@@ -0,0 +1,40 @@
+package com.klnon.recyclingservice.foundation.events;
+
+import com.klnon.recyclingservice.content.chunk.ChunkTickProfiler;
+import net.neoforged.bus.api.EventPriority;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.neoforge.event.server.ServerStoppedEvent;
+import net.neoforged.neoforge.event.tick.EntityTickEvent;
+import net.neoforged.neoforge.event.tick.ServerTickEvent;
+
+/**
+ * 区块耗时采样事件处理器 - 驱动ChunkTickProfiler的采样节奏与实体tick计时
+ * 方块实体的计时由BlockEntityTickProfilerMixin完成
+ */
+public class ChunkProfilerEvent {
+
+    @SubscribeEvent
+    public static void onServerTickStart(ServerTickEvent.Pre event) {
+        ChunkTickProfiler.onServerTickStart();
+    }
+
+    // 最低优先级：其他监听器取消tick后不会再收到事件，计时开始后一定有对应的Post
+    @SubscribeEvent(priority = EventPriority.LOWEST)
+    public static void onEntityTickStart(EntityTickEvent.Pre event) {
+        if (!event.getEntity().level().isClientSide()) {
+            ChunkTickProfiler.startEntity(event.getEntity());
+        }
+    }
+
+    @SubscribeEvent
+    public static void onEntityTickEnd(EntityTickEvent.Post event) {
+        if (!event.getEntity().level().isClientSide()) {
+            ChunkTickProfiler.endEntity(event.getEntity());
+        }
+    }
+
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent event) {
+        ChunkTickProfiler.reset();
+    }
+}
@@ -0,0 +1,48 @@
+package com.klnon.recyclingservice.foundation.events;
+
+import com.klnon.recyclingservice.content.chunk.PerformanceController;
+import com.klnon.recyclingservice.content.chunk.PerformanceMonitor;
+import net.minecraft.server.level.ServerLevel;
+import net.neoforged.bus.api.EventPriority;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.neoforge.event.server.ServerStoppedEvent;
+import net.neoforged.neoforge.event.tick.LevelTickEvent;
+import net.neoforged.neoforge.event.tick.ServerTickEvent;
+
+/**
+ * tick耗时事件处理器 - 为PerformanceMonitor记录服务器与各维度的tick耗时
+ * 开始用最高优先级、结束用最低优先级，把其他模组的tick处理也计入
+ */
+public class TickTimeEvent {
+
+    @SubscribeEvent(priority = EventPriority.HIGHEST)
+    public static void onServerTickStart(ServerTickEvent.Pre event) {
+        PerformanceMonitor.onServerTickStart();
+    }
+
+    @SubscribeEvent(priority = EventPriority.LOWEST)
+    public static void onServerTickEnd(ServerTickEvent.Post event) {
+        PerformanceMonitor.onServerTickEnd();
+    }
+
+    @SubscribeEvent(priority = EventPriority.HIGHEST)
+    public static void onLevelTickStart(LevelTickEvent.Pre event) {
+        if (event.getLevel() instanceof ServerLevel level) {
+            PerformanceMonitor.onLevelTickStart(level);
+        }
+    }
+
+    @SubscribeEvent(priority = EventPriority.LOWEST)
+    public static void onLevelTickEnd(LevelTickEvent.Post event) {
+        if (event.getLevel() instanceof ServerLevel level) {
+            PerformanceMonitor.onLevelTickEnd(level);
+        }
+    }
+
+    // 耗时窗口与依据它积累的控制器积分都属于本次运行，停止后清空
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent event) {
+        PerformanceMonitor.reset();
+        PerformanceController.reset();
+    }
+}
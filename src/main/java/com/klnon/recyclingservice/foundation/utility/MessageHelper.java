@@ -73,6 +73,14 @@ public class MessageHelper {
             Map.of("time", String.valueOf(remainingSeconds)));
     }
 
+    /**
+     * 获取格式化的清理进度消息
+     */
+    public static String getCleanupProgressMessage(int percent) {
+        return formatTemplate(Config.MESSAGE.cleanupProgressMessage.get(),
+            Map.of("percent", String.valueOf(percent)));
+    }
+
     /**
      * 获取格式化的物品过多警告消息（支持点击传送）
      */
@@ -132,6 +140,10 @@ public class MessageHelper {
             "items", String.valueOf(dimensionStats.itemsCleaned()),
             "entities", String.valueOf(dimensionStats.projectilesCleaned())
         ));
+        if (dimensionStats.itemsOverflowed() > 0) {
+            baseText += formatTemplate(Config.MESSAGE.overflowEntryFormat.get(),
+                Map.of("overflow", String.valueOf(dimensionStats.itemsOverflowed())));
+        }
         
         // 创建可点击的按钮
         String buttonText = formatTemplate(Config.MESSAGE.trashBoxButtonText.get(), 
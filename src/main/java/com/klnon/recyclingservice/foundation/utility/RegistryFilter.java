@@ -0,0 +1,76 @@
+package com.klnon.recyclingservice.foundation.utility;
+
+import com.klnon.recyclingservice.Recyclingservice;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import net.minecraft.core.Holder;
+import net.minecraft.core.Registry;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.tags.TagKey;
+
+import java.util.List;
+
+/**
+ * 注册表过滤条目解析工具
+ * 支持三种写法：精确ID(minecraft:dirt)、标签(#minecraft:logs)、命名空间通配(create:*)
+ * 在配置加载/标签更新时一次性展开为对象集合，运行时只做引用查表
+ */
+public class RegistryFilter {
+
+    private static final String TAG_PREFIX = "#";
+    private static final String WILDCARD_SUFFIX = ":*";
+
+    /**
+     * 把配置条目展开为注册表对象集合
+     * @param registry 目标注册表
+     * @param entries 配置条目
+     * @return 命中的注册表对象
+     */
+    public static <T> ReferenceOpenHashSet<T> resolve(Registry<T> registry, List<? extends String> entries) {
+        ReferenceOpenHashSet<T> result = new ReferenceOpenHashSet<>();
+        for (String entry : entries) {
+            try {
+                if (entry.startsWith(TAG_PREFIX)) {
+                    TagKey<T> tag = TagKey.create(registry.key(), ResourceLocation.parse(entry.substring(1)));
+                    registry.getTag(tag).ifPresent(set -> {
+                        for (Holder<T> holder : set) {
+                            result.add(holder.value());
+                        }
+                    });
+                } else if (entry.endsWith(WILDCARD_SUFFIX)) {
+                    String namespace = entry.substring(0, entry.length() - WILDCARD_SUFFIX.length());
+                    for (T value : registry) {
+                        ResourceLocation key = registry.getKey(value);
+                        if (key != null && key.getNamespace().equals(namespace)) {
+                            result.add(value);
+                        }
+                    }
+                } else {
+                    registry.getOptional(ResourceLocation.parse(entry)).ifPresent(result::add);
+                }
+            } catch (Exception e) {
+                Recyclingservice.LOGGER.warn("Invalid filter entry '{}', skipping", entry);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 校验配置条目格式（供ModConfigSpec使用）
+     */
+    public static boolean isValidEntry(Object obj) {
+        if (!(obj instanceof String entry) || entry.isEmpty()) return false;
+        try {
+            if (entry.startsWith(TAG_PREFIX)) {
+                ResourceLocation.parse(entry.substring(1));
+                return true;
+            }
+            if (entry.endsWith(WILDCARD_SUFFIX)) {
+                return ResourceLocation.isValidNamespace(entry.substring(0, entry.length() - WILDCARD_SUFFIX.length()));
+            }
+            ResourceLocation.parse(entry);
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.klnon.recyclingservice.gametest;
+
+import com.klnon.recyclingservice.Recyclingservice;
+import com.klnon.recyclingservice.content.cleanup.entity.DimensionEntityCache;
+import com.klnon.recyclingservice.content.cleanup.entity.ReportableEntity;
+import com.klnon.recyclingservice.content.trashbox.core.TrashBox;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import net.minecraft.gametest.framework.GameTest;
+import net.minecraft.gametest.framework.GameTestHelper;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.entity.item.ItemEntity;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+import net.minecraft.world.level.Level;
+import net.neoforged.neoforge.gametest.GameTestHolder;
+import net.neoforged.neoforge.gametest.PrefixGameTestTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 实体缓存并发GameTest - 多个生产者线程（模拟异步实体tick）与服务端线程同时上报、取消上报和登记垃圾箱物品
+ * 断言刷入后没有物品丢失或重复，且跨线程的操作顺序得到保持（包括取序号后被抢占而迟到的操作）
+ */
+@GameTestHolder(Recyclingservice.MODID)
+@PrefixGameTestTemplate(false)
+public class EntityCacheConcurrencyGameTest {
+
+    private static final int PRODUCERS = 8;
+    private static final int ENTITIES_PER_PRODUCER = 500;
+    private static final Item[] ITEMS = {Items.STONE, Items.DIRT, Items.SAND, Items.GRAVEL};
+
+    @GameTest(template = "empty", timeoutTicks = 200)
+    public static void producersLoseAndDuplicateNothing(GameTestHelper helper) {
+        ServerLevel level = helper.getLevel();
+        DimensionEntityCache cache = new DimensionEntityCache(level.dimension().location(), new LongAdder());
+        TrashBox trashBox = new TrashBox(54, 1, level.dimension().location());
+
+        // 每个生产者的实体与预期物品总数在服务端线程创建
+        List<List<ItemEntity>> batches = new ArrayList<>();
+        Object2IntOpenHashMap<Item> expected = new Object2IntOpenHashMap<>();
+        for (int p = 0; p < PRODUCERS; p++) {
+            List<ItemEntity> batch = new ArrayList<>(ENTITIES_PER_PRODUCER);
+            for (int i = 0; i < ENTITIES_PER_PRODUCER; i++) {
+                Item item = ITEMS[(p + i) % ITEMS.length];
+                int count = 1 + (i % 16);
+                batch.add(new ItemEntity(level, p * 16 + 0.5, 64, i % 256 + 0.5, new ItemStack(item, count)));
+                expected.addTo(item, count);
+            }
+            batches.add(batch);
+        }
+
+        ExecutorService producers = Executors.newFixedThreadPool(PRODUCERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (List<ItemEntity> batch : batches) {
+            futures.add(producers.submit(() -> {
+                start.await();
+                // 与ItemEntityReportMixin相同的顺序：先上报，删除信号激活后取消上报并登记垃圾箱
+                for (ItemEntity entity : batch) {
+                    cache.queueReport(entity);
+                }
+                for (ItemEntity entity : batch) {
+                    cache.queueRemove(entity);
+                    cache.queueTrash(entity);
+                }
+                return null;
+            }));
+        }
+
+        ReferenceOpenHashSet<ItemEntity> drained = new ReferenceOpenHashSet<>();
+        int duplicates = 0;
+        try {
+            start.countDown();
+            // 服务端线程在生产者运行期间反复刷入与取出，模拟多个tick结束
+            while (!allDone(futures)) {
+                cache.flush();
+                duplicates += storeDrained(cache, trashBox, drained);
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            helper.fail("Producer failed: " + e);
+        } finally {
+            producers.shutdownNow();
+        }
+        cache.flush();
+        duplicates += storeDrained(cache, trashBox, drained);
+
+        int total = PRODUCERS * ENTITIES_PER_PRODUCER;
+        helper.assertTrue(duplicates == 0, duplicates + " item entities were drained more than once");
+        helper.assertTrue(drained.size() == total, "Drained " + drained.size() + " of " + total + " item entities");
+        helper.assertTrue(cache.size() == 0, cache.size() + " entities still reported after their removal");
+        helper.assertTrue(cache.getTotalReported() == total && cache.getTotalRemoved() == total,
+                "Reported " + cache.getTotalReported() + " / removed " + cache.getTotalRemoved() + ", expected " + total);
+
+        Object2IntOpenHashMap<Item> stored = new Object2IntOpenHashMap<>();
+        for (int slot = 0; slot < trashBox.getContainerSize(); slot++) {
+            ItemStack stack = trashBox.getItem(slot);
+            if (!stack.isEmpty()) stored.addTo(stack.getItem(), stack.getCount());
+        }
+        helper.assertTrue(expected.equals(stored), "Trash box holds " + stored + ", expected " + expected);
+        helper.succeed();
+    }
+
+    @GameTest(template = "empty")
+    public static void offThreadReportThenOwnerRemove(GameTestHelper helper) {
+        ServerLevel level = helper.getLevel();
+        DimensionEntityCache cache = new DimensionEntityCache(level.dimension().location(), new LongAdder());
+        ItemEntity entity = new ItemEntity(level, 0.5, 64, 0.5, new ItemStack(Items.STONE));
+
+        ExecutorService producer = Executors.newSingleThreadExecutor();
+        try {
+            producer.submit(() -> cache.queueReport(entity)).get();
+        } catch (InterruptedException | ExecutionException e) {
+            helper.fail("Producer failed: " + e);
+        } finally {
+            producer.shutdownNow();
+        }
+        // 同一tick内服务端线程随后取消上报，刷入后实体不应仍处于上报状态
+        cache.queueRemove(entity);
+        cache.flush();
+
+        helper.assertTrue(!cache.contains(entity.getId()), "Owner-thread removal was applied before the earlier off-thread report");
+        helper.succeed();
+    }
+
+    @GameTest(template = "empty")
+    public static void lateOffThreadReportIsDropped(GameTestHelper helper) {
+        ServerLevel level = helper.getLevel();
+        DimensionEntityCache cache = new DimensionEntityCache(level.dimension().location(), new LongAdder());
+        PausingItemEntity entity = new PausingItemEntity(level, 0.5, 64, 0.5, new ItemStack(Items.STONE));
+        entity.armed = true;
+
+        ExecutorService producer = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> report = producer.submit(() -> cache.queueReport(entity));
+            // 生产者已取到序号但还没有入队，此时服务端线程取消上报并刷入
+            helper.assertTrue(entity.sequenceTaken.await(5, TimeUnit.SECONDS), "Producer never reached the enqueue window");
+            cache.queueRemove(entity);
+            cache.flush();
+
+            entity.release.countDown();
+            report.get(5, TimeUnit.SECONDS);
+            cache.flush();
+        } catch (InterruptedException | ExecutionException | TimeoutException e) {
+            helper.fail("Producer failed: " + e);
+        } finally {
+            entity.release.countDown();
+            producer.shutdownNow();
+        }
+
+        helper.assertTrue(!cache.contains(entity.getId()), "Late off-thread report was applied after the newer removal");
+        helper.assertTrue(!((ReportableEntity) entity).recyclingservice$isReported(),
+                "Entity field still reported after the late report was dropped");
+        helper.succeed();
+    }
+
+    /**
+     * 取出本轮的待放入物品并放入垃圾箱
+     * @return 重复取出的实体数量
+     */
+    private static int storeDrained(DimensionEntityCache cache, TrashBox trashBox, ReferenceOpenHashSet<ItemEntity> drained) {
+        int duplicates = 0;
+        List<ItemStack> stacks = new ArrayList<>();
+        for (ItemEntity entity : cache.drainTrash()) {
+            if (!drained.add(entity)) {
+                duplicates++;
+                continue;
+            }
+            stacks.add(entity.getItem().copy());
+        }
+        trashBox.addAll(stacks);
+        return duplicates;
+    }
+
+    private static boolean allDone(List<Future<?>> futures) {
+        for (Future<?> future : futures) {
+            if (!future.isDone()) return false;
+        }
+        return true;
+    }
+
+    /**
+     * 生产者线程在入队前暂停的物品实体：DimensionEntityCache取到序号后调用getServer判断线程，此时尚未入队
+     */
+    private static final class PausingItemEntity extends ItemEntity {
+        private final CountDownLatch sequenceTaken = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private volatile boolean armed;
+
+        private PausingItemEntity(Level level, double x, double y, double z, ItemStack stack) {
+            super(level, x, y, z, stack);
+        }
+
+        @Override
+        public MinecraftServer getServer() {
+            MinecraftServer server = super.getServer();
+            if (armed && server != null && !server.isSameThread()) {
+                armed = false;
+                sequenceTaken.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return server;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.klnon.recyclingservice.gametest;
+
+import com.klnon.recyclingservice.Recyclingservice;
+import com.klnon.recyclingservice.content.cleanup.entity.DimensionEntityCache;
+import net.minecraft.gametest.framework.GameTest;
+import net.minecraft.gametest.framework.GameTestHelper;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.entity.item.ItemEntity;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+import net.minecraft.world.level.ChunkPos;
+import net.neoforged.neoforge.gametest.GameTestHolder;
+import net.neoforged.neoforge.gametest.PrefixGameTestTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 实体缓存索引GameTest - 4万个上报物品时，超载区块查询的开销只与超载区块数量相关
+ * 同时测量原先按维度UUID表每次重建装箱区块计数的方式作为对照，结果写入日志
+ */
+@GameTestHolder(Recyclingservice.MODID)
+@PrefixGameTestTemplate(false)
+public class EntityCacheIndexGameTest {
+
+    private static final int HOT_CHUNKS = 10;
+    private static final int ITEMS_PER_HOT_CHUNK = 3000;
+    private static final int COLD_CHUNKS = 2500;
+    private static final int ITEMS_PER_COLD_CHUNK = 4;
+    private static final int THRESHOLD = 500;
+    private static final int QUERIES = 1000;
+    private static final int BASELINE_QUERIES = 20;
+    // 每次超载区块查询允许的分配量（字节），与上报实体数量无关
+    private static final long BYTES_PER_QUERY = 4 * 1024;
+
+    @GameTest(template = "empty", timeoutTicks = 400)
+    public static void overloadedQueryIgnoresEntityCount(GameTestHelper helper) {
+        ServerLevel level = helper.getLevel();
+        DimensionEntityCache cache = new DimensionEntityCache(level.dimension().location(), new LongAdder());
+        // 对照：原实现保存的每个实体的区块坐标
+        List<ChunkPos> baselineRecords = new ArrayList<>();
+
+        List<ItemEntity> hotEntities = new ArrayList<>();
+        for (int chunk = 0; chunk < HOT_CHUNKS; chunk++) {
+            for (int i = 0; i < ITEMS_PER_HOT_CHUNK; i++) {
+                hotEntities.add(report(cache, baselineRecords, level, chunk * 16 + 8, 8));
+            }
+        }
+        for (int chunk = 0; chunk < COLD_CHUNKS; chunk++) {
+            for (int i = 0; i < ITEMS_PER_COLD_CHUNK; i++) {
+                report(cache, baselineRecords, level, (chunk % 50) * 16 + 8, (chunk / 50 + 1) * 16 + 8);
+            }
+        }
+
+        Set<ChunkPos> expected = baselineOverloaded(baselineRecords);
+        helper.assertTrue(new HashSet<>(cache.getOverloadedChunks(THRESHOLD)).equals(expected),
+                "Overloaded chunks differ from a full recount");
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < QUERIES; i++) {
+            cache.getOverloadedChunks(THRESHOLD);
+        }
+        long indexNanos = (System.nanoTime() - start) / QUERIES;
+        long indexBytes = (threads.getCurrentThreadAllocatedBytes() - allocatedBefore) / QUERIES;
+
+        allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        start = System.nanoTime();
+        for (int i = 0; i < BASELINE_QUERIES; i++) {
+            baselineOverloaded(baselineRecords);
+        }
+        long baselineNanos = (System.nanoTime() - start) / BASELINE_QUERIES;
+        long baselineBytes = (threads.getCurrentThreadAllocatedBytes() - allocatedBefore) / BASELINE_QUERIES;
+
+        Recyclingservice.LOGGER.info("Overloaded chunk query with {} reported items: index {} ns / {} B, full recount {} ns / {} B",
+                cache.size(), indexNanos, indexBytes, baselineNanos, baselineBytes);
+        helper.assertTrue(indexBytes <= BYTES_PER_QUERY,
+                "Overloaded chunk query allocated " + indexBytes + " bytes, budget " + BYTES_PER_QUERY);
+
+        // 移除一个热点区块的全部实体后，计数增量回落，该区块不再超载
+        for (int i = 0; i < ITEMS_PER_HOT_CHUNK; i++) {
+            cache.remove(hotEntities.get(i).getId());
+        }
+        helper.assertTrue(cache.getOverloadedChunks(THRESHOLD).size() == HOT_CHUNKS - 1,
+                "Removing a hot chunk's items did not clear its overload");
+        helper.succeed();
+    }
+
+    private static ItemEntity report(DimensionEntityCache cache, List<ChunkPos> baselineRecords,
+                                     ServerLevel level, double x, double z) {
+        ItemEntity entity = new ItemEntity(level, x, 64, z, new ItemStack(Items.STONE));
+        cache.add(entity);
+        baselineRecords.add(new ChunkPos(entity.blockPosition()));
+        return entity;
+    }
+
+    /**
+     * 原实现：每次查询遍历全部实体，重建装箱的区块计数表
+     */
+    private static Set<ChunkPos> baselineOverloaded(List<ChunkPos> records) {
+        Map<ChunkPos, Integer> counts = new HashMap<>();
+        for (ChunkPos pos : records) {
+            counts.merge(pos, 1, Integer::sum);
+        }
+        Set<ChunkPos> overloaded = new HashSet<>();
+        counts.forEach((pos, count) -> {
+            if (count >= THRESHOLD) overloaded.add(pos);
+        });
+        return overloaded;
+    }
+}
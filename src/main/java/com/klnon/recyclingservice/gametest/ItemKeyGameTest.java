@@ -0,0 +1,135 @@
+package com.klnon.recyclingservice.gametest;
+
+import com.klnon.recyclingservice.Recyclingservice;
+import com.klnon.recyclingservice.content.cleanup.entity.ItemKey;
+import com.klnon.recyclingservice.content.trashbox.core.TrashBox;
+import net.minecraft.core.component.DataComponents;
+import net.minecraft.gametest.framework.GameTest;
+import net.minecraft.gametest.framework.GameTestHelper;
+import net.minecraft.network.chat.Component;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+import net.minecraft.world.item.component.ItemLore;
+import net.neoforged.neoforge.gametest.GameTestHolder;
+import net.neoforged.neoforge.gametest.PrefixGameTestTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 物品键GameTest - 向垃圾箱放入1万个物品堆时的分配量与耗时
+ * 同时测量原先拼接字符串的物品键（复制物品、去除LORE、哈希全部组件）作为对照，结果写入日志
+ */
+@GameTestHolder(Recyclingservice.MODID)
+@PrefixGameTestTemplate(false)
+public class ItemKeyGameTest {
+
+    private static final int STACKS = 10_000;
+    private static final Item[] ITEMS = {Items.STONE, Items.DIRT, Items.SAND, Items.GRAVEL, Items.OAK_LOG,
+            Items.COBBLESTONE, Items.ROTTEN_FLESH, Items.BONE, Items.ARROW, Items.STRING};
+    private static final int NAMES = 4;
+    // 平均每次放入允许的分配量（字节）
+    private static final long BYTES_PER_INSERT = 512;
+
+    @GameTest(template = "empty", timeoutTicks = 400)
+    public static void insertTenThousandStacks(GameTestHelper helper) {
+        // 预热一轮，排除类加载与JIT的分配
+        insert(new TrashBox(54, 1, helper.getLevel().dimension().location()), createStacks());
+
+        List<ItemStack> stacks = createStacks();
+        List<ItemStack> keyStacks = createStacks();
+        TrashBox trashBox = new TrashBox(54, 1, helper.getLevel().dimension().location());
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        insert(trashBox, stacks);
+        long insertNanos = (System.nanoTime() - start) / STACKS;
+        long insertBytes = (threads.getCurrentThreadAllocatedBytes() - allocatedBefore) / STACKS;
+
+        allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        start = System.nanoTime();
+        Set<ItemKey> keys = new HashSet<>();
+        for (ItemStack stack : keyStacks) {
+            keys.add(ItemKey.of(stack));
+        }
+        long keyNanos = (System.nanoTime() - start) / STACKS;
+        long keyBytes = (threads.getCurrentThreadAllocatedBytes() - allocatedBefore) / STACKS;
+
+        allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        start = System.nanoTime();
+        Set<String> baselineKeys = new HashSet<>();
+        for (ItemStack stack : keyStacks) {
+            baselineKeys.add(baselineKey(stack));
+        }
+        long baselineNanos = (System.nanoTime() - start) / STACKS;
+        long baselineBytes = (threads.getCurrentThreadAllocatedBytes() - allocatedBefore) / STACKS;
+
+        Recyclingservice.LOGGER.info("Inserting {} stacks: {} ns / {} B per insert; ItemKey {} ns / {} B, string key {} ns / {} B",
+                STACKS, insertNanos, insertBytes, keyNanos, keyBytes, baselineNanos, baselineBytes);
+
+        // LORE不同的物品合并到同一槽位：每种物品×名称一个槽位
+        int expectedSlots = ITEMS.length * NAMES;
+        helper.assertTrue(keys.size() == expectedSlots, "Expected " + expectedSlots + " distinct keys, got " + keys.size());
+        helper.assertTrue(trashBox.getItemCount() == expectedSlots,
+                "Expected " + expectedSlots + " occupied slots, got " + trashBox.getItemCount());
+        int stored = 0;
+        for (int slot = 0; slot < trashBox.getContainerSize(); slot++) {
+            stored += trashBox.getItem(slot).getCount();
+        }
+        helper.assertTrue(stored == totalCount(), "Stored " + stored + " items, expected " + totalCount());
+        helper.assertTrue(insertBytes <= BYTES_PER_INSERT,
+                "Insert allocated " + insertBytes + " bytes per stack, budget " + BYTES_PER_INSERT);
+        helper.assertTrue(keyBytes < baselineBytes,
+                "ItemKey allocated " + keyBytes + " bytes per key, string key " + baselineBytes);
+        helper.succeed();
+    }
+
+    private static void insert(TrashBox trashBox, List<ItemStack> stacks) {
+        for (ItemStack stack : stacks) {
+            trashBox.addItem(stack);
+        }
+    }
+
+    /**
+     * 10种物品 × 4种名称，其中一半带有各不相同的LORE（不影响物品键）
+     */
+    private static List<ItemStack> createStacks() {
+        List<ItemStack> stacks = new ArrayList<>(STACKS);
+        for (int i = 0; i < STACKS; i++) {
+            ItemStack stack = new ItemStack(ITEMS[i % ITEMS.length], 8);
+            int name = i / ITEMS.length % NAMES;
+            if (name > 0) {
+                stack.set(DataComponents.CUSTOM_NAME, Component.literal("Drop " + name));
+            }
+            if (i % 2 == 0) {
+                stack.set(DataComponents.LORE, new ItemLore(List.of(Component.literal("#" + i))));
+            }
+            stacks.add(stack);
+        }
+        return stacks;
+    }
+
+    private static int totalCount() {
+        return STACKS * 8;
+    }
+
+    /**
+     * 原实现的复杂物品键
+     */
+    private static String baselineKey(ItemStack stack) {
+        StringBuilder keyBuilder = new StringBuilder();
+        keyBuilder.append(stack.getItem());
+        ItemStack tempStack = stack.copy();
+        tempStack.remove(DataComponents.LORE);
+        keyBuilder.append("_components_").append(tempStack.getComponents().hashCode());
+        if (stack.isDamaged()) {
+            keyBuilder.append("_damage_").append(stack.getDamageValue());
+        }
+        return keyBuilder.toString();
+    }
+}
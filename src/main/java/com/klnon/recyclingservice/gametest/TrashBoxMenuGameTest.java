@@ -0,0 +1,147 @@
+package com.klnon.recyclingservice.gametest;
+
+import com.klnon.recyclingservice.Config;
+import com.klnon.recyclingservice.Recyclingservice;
+import com.klnon.recyclingservice.content.trashbox.TrashBoxMenu;
+import com.klnon.recyclingservice.content.trashbox.TrashBoxViewers;
+import com.klnon.recyclingservice.content.trashbox.core.TrashBox;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import net.minecraft.gametest.framework.GameTest;
+import net.minecraft.gametest.framework.GameTestHelper;
+import net.minecraft.network.chat.Component;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.SimpleMenuProvider;
+import net.minecraft.world.entity.player.Inventory;
+import net.minecraft.world.inventory.ClickType;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+import net.neoforged.neoforge.gametest.GameTestHolder;
+import net.neoforged.neoforge.gametest.PrefixGameTestTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+/**
+ * 垃圾箱菜单GameTest - 连续快速点击后内容与观看者同步仍然正确，且分配量有界
+ */
+@GameTestHolder(Recyclingservice.MODID)
+@PrefixGameTestTemplate(false)
+public class TrashBoxMenuGameTest {
+
+    // 每轮5次点击：取出、双击收集、放回、快速移到背包、快速移回垃圾箱
+    private static final int ROUNDS = 200;
+    private static final int WARMUP_ROUNDS = 20;
+    // 平均每次点击允许的分配量（字节），包含给观看者发送的同步包
+    private static final long BYTES_PER_CLICK = 16 * 1024;
+
+    @GameTest(template = "empty")
+    public static void rapidClicksKeepContents(GameTestHelper helper) {
+        ServerPlayer player = helper.makeMockServerPlayerInLevel();
+        int capacity = Config.GAMEPLAY.trashBoxRows.get() * 9;
+        TrashBox trashBox = new TrashBox(capacity, 1, helper.getLevel().dimension().location());
+        helper.assertTrue(trashBox.isAllowedToPutIn(), "Test dimension must allow putting items into trash boxes");
+
+        for (ItemStack stack : initialStacks()) {
+            trashBox.addItem(stack);
+        }
+        Object2IntOpenHashMap<Item> expected = countItems(trashBox, player.getInventory(), ItemStack.EMPTY);
+
+        player.openMenu(new SimpleMenuProvider(
+                (containerId, inventory, p) -> new TrashBoxMenu(containerId, inventory, trashBox),
+                Component.literal("gametest")));
+        helper.assertTrue(player.containerMenu instanceof TrashBoxMenu, "Trash box menu did not open");
+        TrashBoxMenu menu = (TrashBoxMenu) player.containerMenu;
+        try {
+            for (int round = 0; round < WARMUP_ROUNDS; round++) {
+                clickRound(helper, menu, trashBox, player, capacity, round);
+            }
+
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+            long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+            for (int round = 0; round < ROUNDS; round++) {
+                clickRound(helper, menu, trashBox, player, capacity, round);
+            }
+            long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+
+            Object2IntOpenHashMap<Item> actual = countItems(trashBox, player.getInventory(), menu.getCarried());
+            helper.assertTrue(expected.equals(actual), "Items lost or duplicated: expected " + expected + ", got " + actual);
+
+            int occupied = 0;
+            for (int slot = 0; slot < capacity; slot++) {
+                if (!trashBox.getItem(slot).isEmpty()) occupied++;
+            }
+            helper.assertTrue(occupied == trashBox.getItemCount(), "Slot index out of sync with contents");
+
+            long budget = ROUNDS * 5L * BYTES_PER_CLICK;
+            helper.assertTrue(allocated <= budget,
+                    "Allocated " + allocated + " bytes for " + ROUNDS * 5 + " clicks, budget " + budget);
+        } finally {
+            player.closeContainer();
+            helper.getLevel().getServer().getPlayerList().remove(player);
+        }
+        helper.succeed();
+    }
+
+    /**
+     * 对一个有物品的垃圾箱槽位执行一轮点击，然后像tick结束时一样广播脏槽位并检查观看者的远端槽位
+     */
+    private static void clickRound(GameTestHelper helper, TrashBoxMenu menu, TrashBox trashBox,
+                                   ServerPlayer player, int capacity, int round) {
+        int slot = occupiedSlot(trashBox, capacity, round * 7 % capacity);
+        if (slot >= 0) {
+            menu.clicked(slot, 0, ClickType.PICKUP, player);
+            menu.clicked(slot, 0, ClickType.PICKUP_ALL, player);
+            menu.clicked(slot, 0, ClickType.PICKUP, player);
+            menu.clicked(slot, 0, ClickType.QUICK_MOVE, player);
+        }
+        for (int i = capacity; i < menu.slots.size(); i++) {
+            if (!menu.slots.get(i).getItem().isEmpty()) {
+                menu.clicked(i, 0, ClickType.QUICK_MOVE, player);
+                break;
+            }
+        }
+
+        TrashBoxViewers.flush();
+        for (int i = 0; i < capacity; i++) {
+            if (!ItemStack.matches(menu.remoteSlots.get(i), trashBox.getItem(i))) {
+                helper.fail("Viewer out of sync at slot " + i + " after round " + round);
+            }
+        }
+    }
+
+    private static List<ItemStack> initialStacks() {
+        return List.of(
+                new ItemStack(Items.STONE, 300),
+                new ItemStack(Items.DIRT, 128),
+                new ItemStack(Items.COBBLESTONE, 64),
+                new ItemStack(Items.COBBLESTONE, 64),
+                new ItemStack(Items.COBBLESTONE, 64),
+                new ItemStack(Items.DIAMOND, 50),
+                new ItemStack(Items.OAK_LOG, 200),
+                new ItemStack(Items.IRON_SWORD),
+                new ItemStack(Items.IRON_SWORD));
+    }
+
+    private static int occupiedSlot(TrashBox trashBox, int capacity, int from) {
+        for (int i = 0; i < capacity; i++) {
+            int slot = (from + i) % capacity;
+            if (!trashBox.getItem(slot).isEmpty()) return slot;
+        }
+        return -1;
+    }
+
+    private static Object2IntOpenHashMap<Item> countItems(TrashBox trashBox, Inventory inventory, ItemStack carried) {
+        Object2IntOpenHashMap<Item> counts = new Object2IntOpenHashMap<>();
+        for (int slot = 0; slot < trashBox.getContainerSize(); slot++) {
+            ItemStack stack = trashBox.getItem(slot);
+            if (!stack.isEmpty()) counts.addTo(stack.getItem(), stack.getCount());
+        }
+        for (int slot = 0; slot < inventory.getContainerSize(); slot++) {
+            ItemStack stack = inventory.getItem(slot);
+            if (!stack.isEmpty()) counts.addTo(stack.getItem(), stack.getCount());
+        }
+        if (!carried.isEmpty()) counts.addTo(carried.getItem(), carried.getCount());
+        return counts;
+    }
+}
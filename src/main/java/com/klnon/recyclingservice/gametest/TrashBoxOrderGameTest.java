@@ -0,0 +1,56 @@
+package com.klnon.recyclingservice.gametest;
+
+import com.klnon.recyclingservice.Recyclingservice;
+import com.klnon.recyclingservice.content.trashbox.core.TrashBox;
+import com.klnon.recyclingservice.content.trashbox.core.TrashSortOrder;
+import net.minecraft.gametest.framework.GameTest;
+import net.minecraft.gametest.framework.GameTestHelper;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+import net.neoforged.neoforge.gametest.GameTestHolder;
+import net.neoforged.neoforge.gametest.PrefixGameTestTemplate;
+
+import java.util.List;
+
+/**
+ * 垃圾箱排列顺序GameTest - 新物品放在前后两类之间的空位，区间已满时记为乱序
+ * 苹果、面包、胡萝卜同属普通物品，按注册名排序
+ */
+@GameTestHolder(Recyclingservice.MODID)
+@PrefixGameTestTemplate(false)
+public class TrashBoxOrderGameTest {
+
+    @GameTest(template = "empty")
+    public static void insertKeepsOrderBetweenNeighbours(GameTestHelper helper) {
+        helper.assertTrue(TrashSortOrder.current() != TrashSortOrder.NONE, "sort_order must not be none for this test");
+        TrashBox trashBox = new TrashBox(9, 1, helper.getLevel().dimension().location());
+
+        trashBox.setItem(0, new ItemStack(Items.APPLE));
+        trashBox.setItem(2, new ItemStack(Items.CARROT));
+        trashBox.addItem(new ItemStack(Items.BREAD));
+
+        helper.assertTrue(trashBox.getItem(1).is(Items.BREAD), "Bread was not placed between apple and carrot");
+        helper.assertTrue(!trashBox.isOutOfOrder(), "Ordered insert marked the box out of order");
+        helper.succeed();
+    }
+
+    @GameTest(template = "empty")
+    public static void fullRangeFallsBackOutOfOrder(GameTestHelper helper) {
+        helper.assertTrue(TrashSortOrder.current() != TrashSortOrder.NONE, "sort_order must not be none for this test");
+        TrashBox trashBox = new TrashBox(9, 1, helper.getLevel().dimension().location());
+
+        trashBox.setItem(0, new ItemStack(Items.APPLE));
+        trashBox.setItem(1, new ItemStack(Items.CARROT));
+        trashBox.addItem(new ItemStack(Items.BREAD));
+
+        helper.assertTrue(trashBox.getItem(2).is(Items.BREAD), "Bread did not fall back to the first empty slot");
+        helper.assertTrue(trashBox.isOutOfOrder(), "Fallback insert was not tracked as out of order");
+
+        // 整理后恢复顺序
+        List<ItemStack> stacks = trashBox.takeAll();
+        stacks.sort(TrashSortOrder.current().comparator());
+        trashBox.fillInOrder(stacks, 0);
+        helper.assertTrue(trashBox.getItem(1).is(Items.BREAD) && !trashBox.isOutOfOrder(), "Sorting did not restore the order");
+        helper.succeed();
+    }
+}
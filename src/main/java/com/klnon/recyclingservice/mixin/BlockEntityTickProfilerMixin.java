@@ -0,0 +1,39 @@
+package com.klnon.recyclingservice.mixin;
+
+import com.klnon.recyclingservice.content.chunk.ChunkTickProfiler;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import org.spongepowered.asm.mixin.Final;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+/**
+ * 方块实体tick耗时采样Mixin
+ * 在采样tick中记录服务端方块实体的tick耗时到所在区块
+ */
+@Mixin(targets = "net.minecraft.world.level.chunk.LevelChunk$BoundTickingBlockEntity")
+public abstract class BlockEntityTickProfilerMixin {
+
+    @Shadow
+    @Final
+    private BlockEntity blockEntity;
+
+    @Inject(method = "tick", at = @At("HEAD"))
+    private void recyclingservice$beforeTick(CallbackInfo ci) {
+        Level level = blockEntity.getLevel();
+        if (level != null && !level.isClientSide()) {
+            ChunkTickProfiler.startBlockEntity(level);
+        }
+    }
+
+    @Inject(method = "tick", at = @At("RETURN"))
+    private void recyclingservice$afterTick(CallbackInfo ci) {
+        Level level = blockEntity.getLevel();
+        if (level != null && !level.isClientSide()) {
+            ChunkTickProfiler.endBlockEntity(level, blockEntity.getBlockPos());
+        }
+    }
+}
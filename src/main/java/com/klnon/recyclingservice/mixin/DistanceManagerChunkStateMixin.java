@@ -0,0 +1,71 @@
+package com.klnon.recyclingservice.mixin;
+
+import com.klnon.recyclingservice.content.chunk.ChunkCache;
+import com.klnon.recyclingservice.content.chunk.ChunkStateHolder;
+import com.klnon.recyclingservice.content.chunk.ChunkStateIndex;
+import net.minecraft.server.level.DistanceManager;
+import net.minecraft.server.level.Ticket;
+import net.minecraft.util.SortedArraySet;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.Unique;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+import java.util.function.LongPredicate;
+
+/**
+ * DistanceManager区块状态Mixin
+ * 在管理ticket增删与超时清除时增量更新本维度的区块状态索引
+ */
+@Mixin(DistanceManager.class)
+public abstract class DistanceManagerChunkStateMixin implements ChunkStateHolder {
+
+    @Shadow
+    private long ticketTickCounter;
+
+    @Unique
+    private final ChunkStateIndex recyclingservice$chunkStates = new ChunkStateIndex();
+    @Unique
+    private final LongPredicate recyclingservice$hasManagementTicket = this::recyclingservice$hasManagementTicket;
+
+    @Override
+    public ChunkStateIndex recyclingservice$getChunkStates() {
+        return recyclingservice$chunkStates;
+    }
+
+    @Inject(method = "addTicket(JLnet/minecraft/server/level/Ticket;)V", at = @At("TAIL"))
+    private void recyclingservice$onAddTicket(long chunkPos, Ticket<?> ticket, CallbackInfo ci) {
+        if (ticket.getType() == ChunkCache.RECYCLING_SERVICE_TICKET) {
+            // 原版超时判定为 now - createdTick > timeout，即在createdTick + timeout + 1时清除
+            recyclingservice$chunkStates.onManagementTicketAdded(chunkPos, ticketTickCounter + ticket.getType().timeout() + 1);
+        }
+    }
+
+    @Inject(method = "removeTicket(JLnet/minecraft/server/level/Ticket;)V", at = @At("TAIL"))
+    private void recyclingservice$onRemoveTicket(long chunkPos, Ticket<?> ticket, CallbackInfo ci) {
+        if (ticket.getType() == ChunkCache.RECYCLING_SERVICE_TICKET) {
+            recyclingservice$chunkStates.onManagementTicketRemoved(chunkPos);
+        }
+    }
+
+    @Inject(method = "purgeStaleTickets", at = @At("TAIL"))
+    private void recyclingservice$onPurgeStaleTickets(CallbackInfo ci) {
+        recyclingservice$chunkStates.expire(ticketTickCounter, recyclingservice$hasManagementTicket);
+    }
+
+    @Unique
+    private boolean recyclingservice$hasManagementTicket(long chunkPos) {
+        SortedArraySet<Ticket<?>> chunkTickets = ((DistanceManager)(Object)this).tickets.get(chunkPos);
+        if (chunkTickets == null) {
+            return false;
+        }
+        for (Ticket<?> ticket : chunkTickets) {
+            if (ticket.getType() == ChunkCache.RECYCLING_SERVICE_TICKET) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,9 +1,14 @@
 package com.klnon.recyclingservice.mixin;
 
+import com.klnon.recyclingservice.Config;
 import com.klnon.recyclingservice.content.cleanup.CleanupManager;
-import com.klnon.recyclingservice.content.trashbox.TrashBoxManager;
-import net.minecraft.resources.ResourceLocation;
+import com.klnon.recyclingservice.content.cleanup.entity.DimensionEntityCache;
+import com.klnon.recyclingservice.content.cleanup.entity.ReportScheduler;
+import com.klnon.recyclingservice.content.cleanup.entity.ReportableEntity;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.world.entity.item.ItemEntity;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.Unique;
 import org.spongepowered.asm.mixin.injection.At;
@@ -13,55 +18,150 @@ import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 /**
  * ItemEntity上报Mixin
  * 物品实体满足清理条件时主动上报到缓存
+ * 上报资格由维度时间轮在物品达到存活阈值时检查，物品变化或合并降低存活时间时重新检查
  */
 @Mixin(ItemEntity.class)
-public class ItemEntityReportMixin {
+public class ItemEntityReportMixin implements ReportableEntity {
+    
+    // 上报状态直接存放在实体上，稳态检查无需访问全局缓存
+    @Unique
+    private boolean recyclingservice$reported;
+    @Unique
+    private long recyclingservice$reportTick;
+    // 是否已登记到上报检查时间轮
+    @Unique
+    private boolean recyclingservice$scheduled;
+    // 登记时的物品类型：过滤结果只取决于物品类型，数量变化（合并、拾取）无需重新检查
+    @Unique
+    private Item recyclingservice$checkedItem;
+    
+    // 得出上报结论时的过滤决策表版本，0表示尚无结论
+    @Unique
+    private int recyclingservice$filterGeneration;
+    // 缓存中最后生效的操作序号，用于丢弃迟到的跨线程操作
+    @Unique
+    private long recyclingservice$appliedSequence;
+    
+    @Override
+    public boolean recyclingservice$isReported() {
+        return recyclingservice$reported;
+    }
+    
+    @Override
+    public long recyclingservice$getReportTick() {
+        return recyclingservice$reportTick;
+    }
+    
+    @Override
+    public void recyclingservice$setReported(boolean reported, long gameTime) {
+        this.recyclingservice$reported = reported;
+        this.recyclingservice$reportTick = gameTime;
+    }
+    
+    @Override
+    public int recyclingservice$getFilterGeneration() {
+        return recyclingservice$filterGeneration;
+    }
+    
+    @Override
+    public void recyclingservice$setFilterGeneration(int generation) {
+        this.recyclingservice$filterGeneration = generation;
+    }
+    
+    @Override
+    public long recyclingservice$getAppliedSequence() {
+        return recyclingservice$appliedSequence;
+    }
+    
+    @Override
+    public void recyclingservice$setAppliedSequence(long sequence) {
+        this.recyclingservice$appliedSequence = sequence;
+    }
     
     @Inject(method = "tick", at = @At("TAIL"))
     private void checkAndReport(CallbackInfo ci) {
         try {
             ItemEntity self = (ItemEntity)(Object)this;
             
-            // 4秒检查一次，分散检查时间避免同时计算
-            if (self.tickCount % (20*4) != (self.getId() % 20)) {
+            // 只处理服务端实体
+            if (!(self.level() instanceof ServerLevel level)) {
                 return;
             }
             
-            // 检查是否已在缓存中
-            boolean alreadyReported = CleanupManager.isEntityReported(self);
-            
-            // 检查是否应该上报
-            boolean shouldReport = recyclingservice$shouldReport(self);
-            ResourceLocation dimension = self.level().dimension().location();
+            // 首次tick登记到时间轮，到达上报阈值时再检查过滤条件
+            if (!recyclingservice$scheduled) {
+                recyclingservice$scheduled = true;
+                recyclingservice$checkedItem = self.getItem().getItem();
+                CleanupManager.getEntityCache(level).getScheduler().scheduleFirstCheck(self);
+                return;
+            }
             
-            if (shouldReport && !alreadyReported) {
-                // 应该上报且未上报 -> 上报
-                CleanupManager.reportEntity(dimension,self.getUUID(),self);
-            } else if (!shouldReport && alreadyReported && !self.level().isClientSide()) {
-                // 不应该上报但已上报 -> 取消上报
-                CleanupManager.removeReportedEntity(dimension,self);
+            // 过滤决策表重建后（配置或标签重载）重新检查，包括此前判定为不清理的实体
+            if (recyclingservice$filterGeneration != 0
+                    && recyclingservice$filterGeneration != Config.getFilterGeneration()) {
+                CleanupManager.getEntityCache(level).getScheduler().recheckIfStale(self);
             }
             
-            // 检查全局删除信号，如果激活且在缓存中则自删除
-            if (!self.level().isClientSide() && alreadyReported && 
-                CleanupManager.shouldDeleteEntity(self.level().getServer())) {
-                // 添加物品到垃圾箱
-                TrashBoxManager.addItemToDimension(dimension,self.getItem());
-                self.discard();
+            // 检查全局删除信号，如果激活且在缓存中则自删除（删除前重新确认过滤条件）
+            if (recyclingservice$reported && CleanupManager.shouldDeleteEntity(level.getServer())
+                    && CleanupManager.shouldCleanItem(self)) {
+                // 取消上报并登记到垃圾箱批量队列，tick结束时统一放入垃圾箱后移除
+                DimensionEntityCache cache = CleanupManager.getEntityCache(level);
+                cache.queueRemove(self);
+                cache.queueTrash(self);
             }
         } catch (Exception e) {
             // 出错跳过，什么都不做
         }
     }
     
-    @Unique
-    private boolean recyclingservice$shouldReport(ItemEntity self) {
+    @Inject(method = "setItem", at = @At("TAIL"))
+    private void recheckOnItemChange(CallbackInfo ci) {
         try {
-            // 性能优化：预过滤逻辑 - 只上报需要清理的物品实体
-            return self.getAge() >= 10 * 20 && // 10秒后才考虑清理
-                   CleanupManager.shouldCleanItem(self); // 预过滤
+            ItemEntity self = (ItemEntity)(Object)this;
+            
+            // 未登记的实体首次检查时自然会读取新物品
+            if (!recyclingservice$scheduled || !(self.level() instanceof ServerLevel level)) {
+                return;
+            }
+            Item item = self.getItem().getItem();
+            ReportScheduler scheduler = CleanupManager.getEntityCache(level).getScheduler();
+            // 存活时间已被降低的已上报物品取消上报，到期时会读取新物品
+            if (scheduler.unreportIfTooYoung(self)) {
+                recyclingservice$checkedItem = item;
+                return;
+            }
+            // 只有物品类型变化才会使过滤结果失效
+            if (item == recyclingservice$checkedItem) {
+                return;
+            }
+            recyclingservice$checkedItem = item;
+            // 首次检查尚未到期时无需额外登记
+            if (self.getAge() < Config.getReportAgeTicks()) {
+                return;
+            }
+            
+            // 下一tick重新检查
+            scheduler.schedule(self, 1);
+        } catch (Exception e) {
+            // 出错跳过
+        }
+    }
+    
+    /**
+     * 原版合并先setItem再把存活时间降为两者较小值，setItem钩子看不到新的存活时间
+     * 吸收了新掉落物的已上报物品在这里取消上报，避免年轻物品被清理
+     */
+    @Inject(method = "merge(Lnet/minecraft/world/entity/item/ItemEntity;Lnet/minecraft/world/item/ItemStack;Lnet/minecraft/world/entity/item/ItemEntity;Lnet/minecraft/world/item/ItemStack;)V",
+            at = @At("TAIL"))
+    private static void recheckAfterMerge(ItemEntity destination, ItemStack destinationStack,
+                                          ItemEntity origin, ItemStack originStack, CallbackInfo ci) {
+        try {
+            if (destination.level() instanceof ServerLevel level) {
+                CleanupManager.getEntityCache(level).getScheduler().unreportIfTooYoung(destination);
+            }
         } catch (Exception e) {
-            return false;
+            // 出错跳过
         }
     }
-}
\ No newline at end of file
+}
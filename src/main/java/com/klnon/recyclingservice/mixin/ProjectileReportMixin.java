@@ -1,8 +1,12 @@
 package com.klnon.recyclingservice.mixin;
 
+import com.klnon.recyclingservice.Config;
 import com.klnon.recyclingservice.content.cleanup.CleanupManager;
-import net.minecraft.resources.ResourceLocation;
+import com.klnon.recyclingservice.content.cleanup.entity.DimensionEntityCache;
+import com.klnon.recyclingservice.content.cleanup.entity.ReportableEntity;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.world.entity.Entity;
+import net.minecraft.world.entity.projectile.Projectile;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.Unique;
 import org.spongepowered.asm.mixin.injection.At;
@@ -12,52 +16,95 @@ import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 /**
  * Projectile上报Mixin
  * 弹射物满足清理条件时主动上报到缓存
+ * 只注入Projectile：AbstractArrow.tick会调用super.tick，避免同一tick检查两次且上报字段只有一份
+ * 注入点返回后子类tick仍会继续执行，因此自删除登记到缓存，在tick结束时统一移除
  */
-@Mixin(targets = {
-    "net.minecraft.world.entity.projectile.AbstractArrow",
-    "net.minecraft.world.entity.projectile.Projectile"
-})
-public class ProjectileReportMixin {
+@Mixin(Projectile.class)
+public class ProjectileReportMixin implements ReportableEntity {
+    
+    // 上报状态直接存放在实体上，稳态检查无需访问全局缓存
+    @Unique
+    private boolean recyclingservice$reported;
+    @Unique
+    private long recyclingservice$reportTick;
+    // 是否已登记到上报检查时间轮
+    @Unique
+    private boolean recyclingservice$scheduled;
+    
+    // 得出上报结论时的过滤决策表版本，0表示尚无结论
+    @Unique
+    private int recyclingservice$filterGeneration;
+    // 缓存中最后生效的操作序号，用于丢弃迟到的跨线程操作
+    @Unique
+    private long recyclingservice$appliedSequence;
+    
+    @Override
+    public boolean recyclingservice$isReported() {
+        return recyclingservice$reported;
+    }
+    
+    @Override
+    public long recyclingservice$getReportTick() {
+        return recyclingservice$reportTick;
+    }
+    
+    @Override
+    public void recyclingservice$setReported(boolean reported, long gameTime) {
+        this.recyclingservice$reported = reported;
+        this.recyclingservice$reportTick = gameTime;
+    }
+    
+    @Override
+    public int recyclingservice$getFilterGeneration() {
+        return recyclingservice$filterGeneration;
+    }
+    
+    @Override
+    public void recyclingservice$setFilterGeneration(int generation) {
+        this.recyclingservice$filterGeneration = generation;
+    }
+    
+    @Override
+    public long recyclingservice$getAppliedSequence() {
+        return recyclingservice$appliedSequence;
+    }
+    
+    @Override
+    public void recyclingservice$setAppliedSequence(long sequence) {
+        this.recyclingservice$appliedSequence = sequence;
+    }
     
     @Inject(method = "tick", at = @At("TAIL"))
     private void checkAndReport(CallbackInfo ci) {
         try {
             Entity self = (Entity)(Object)this;
             
-            // 4秒检查一次
-            if (self.tickCount % (20 * 4) != 0) {
+            // 只处理服务端实体
+            if (!(self.level() instanceof ServerLevel level)) {
                 return;
             }
             
-            // 检查是否已在缓存中
-            boolean alreadyReported = CleanupManager.isEntityReported(self);
-            
-            // 检查是否应该上报
-            boolean shouldReport = recyclingservice$shouldReport(self);
-            ResourceLocation dimension = self.level().dimension().location();
+            // 首次tick登记到时间轮，到达上报阈值时再检查过滤条件
+            if (!recyclingservice$scheduled) {
+                recyclingservice$scheduled = true;
+                CleanupManager.getEntityCache(level).getScheduler().scheduleFirstCheck(self);
+                return;
+            }
             
-            if (shouldReport && !alreadyReported && !self.level().isClientSide()) {
-                // 应该上报且未上报 -> 上报
-                CleanupManager.reportEntity(dimension,self.getUUID(),self);
+            // 过滤决策表重建后（配置或标签重载）重新检查，包括此前判定为不清理的实体
+            if (recyclingservice$filterGeneration != 0
+                    && recyclingservice$filterGeneration != Config.getFilterGeneration()) {
+                CleanupManager.getEntityCache(level).getScheduler().recheckIfStale(self);
             }
             
-            // 检查全局删除信号，如果激活且在缓存中则自删除
-            if (!self.level().isClientSide() && alreadyReported && 
-                CleanupManager.shouldDeleteEntity(self.level().getServer())) {
-                self.discard();
+            // 检查全局删除信号，如果激活且在缓存中则取消上报，等子类tick结束后再移除
+            if (recyclingservice$reported && CleanupManager.shouldDeleteEntity(level.getServer())) {
+                DimensionEntityCache cache = CleanupManager.getEntityCache(level);
+                cache.queueRemove(self);
+                cache.queueDiscard(self);
             }
         } catch (Exception e) {
             // 出错跳过
         }
     }
-    
-    @Unique
-    private boolean recyclingservice$shouldReport(Entity self) {
-        try {
-            return self.tickCount >= 10 * 20 && // 10秒后考虑清理
-                   CleanupManager.shouldCleanProjectile(self);
-        } catch (Exception e) {
-            return false;
-        }
-    }
-}
\ No newline at end of file
+}
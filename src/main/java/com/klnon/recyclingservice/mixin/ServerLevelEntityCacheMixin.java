@@ -0,0 +1,28 @@
+package com.klnon.recyclingservice.mixin;
+
+import com.klnon.recyclingservice.content.cleanup.entity.DimensionEntityCache;
+import com.klnon.recyclingservice.content.cleanup.entity.EntityCache;
+import com.klnon.recyclingservice.content.cleanup.entity.LevelEntityCacheHolder;
+import net.minecraft.server.level.ServerLevel;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
+
+/**
+ * ServerLevel缓存句柄Mixin
+ * 在ServerLevel上挂载本维度的实体缓存引用
+ */
+@Mixin(ServerLevel.class)
+public class ServerLevelEntityCacheMixin implements LevelEntityCacheHolder {
+
+    @Unique
+    private DimensionEntityCache recyclingservice$entityCache;
+
+    @Override
+    public DimensionEntityCache recyclingservice$getEntityCache() {
+        if (recyclingservice$entityCache == null) {
+            ServerLevel self = (ServerLevel)(Object)this;
+            recyclingservice$entityCache = EntityCache.getOrCreate(self.dimension().location());
+        }
+        return recyclingservice$entityCache;
+    }
+}